@@ -0,0 +1,16 @@
+package com.example.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * Annotate a class or record to generate a {ClassName}Accessor, an index-based
+ * {@link com.example.runtime.FieldAccessor} over its fields that replaces reflection in generic code.
+ */
+@Retention(SOURCE)
+@Target(TYPE)
+public @interface AutoAccessor {
+}
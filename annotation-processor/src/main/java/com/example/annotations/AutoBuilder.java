@@ -3,13 +3,30 @@ package com.example.annotations;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
+import static java.lang.annotation.ElementType.CONSTRUCTOR;
+import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 /**
- * Annotate a class to generate a {ClassName}Builder with fluent setters and a build() method.
+ * Annotate a class or record to generate a {ClassName}Builder with fluent setters and a build() method.
+ * Annotate a constructor or static factory method instead to have build() call it with the builder's values;
+ * the builder then has one fluent setter per parameter.
+ * Class retention is required by Gradle, since the aggregating mapper processor also reads it for AutogenMetrics.
  */
-@Retention(SOURCE)
-@Target(TYPE)
+@Retention(CLASS)
+@Target({TYPE, CONSTRUCTOR, METHOD})
 public @interface AutoBuilder {
-}
\ No newline at end of file
+
+    /**
+     * Also generate reset(), buildInto(T existing) and a static threadLocal() accessor returning a reset,
+     * per-thread builder, so steady-state building allocates only the result (or nothing, with buildInto).
+     */
+    boolean reusable() default false;
+
+    /**
+     * Count calls and sample latency of the generated build(), applyTo and buildInto methods.
+     * See com.example.runtime.MethodMetrics.
+     */
+    boolean metrics() default false;
+}
@@ -0,0 +1,18 @@
+package com.example.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Annotate a class or record to generate a {ClassName}Codec with static write(T, ByteBuffer), read(ByteBuffer),
+ * readInto(ByteBuffer, T) and sizeOf(T) methods for a compact binary encoding of its fields.
+ * Class retention lets the codec of a type with an @AutoCodec field find the nested codec when that field's type
+ * comes from a class file, e.g. when an incremental build recompiles only the outer type.
+ */
+@Retention(CLASS)
+@Target(TYPE)
+public @interface AutoCodec {
+}
@@ -0,0 +1,16 @@
+package com.example.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * Annotate a class or record to generate a {ClassName}Columns struct-of-arrays companion with one array per field
+ * (primitive arrays for primitive fields) and fromRows(List), toRows() and row(int) conversions.
+ */
+@Retention(SOURCE)
+@Target(TYPE)
+public @interface AutoColumns {
+}
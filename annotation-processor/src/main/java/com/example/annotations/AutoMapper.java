@@ -4,14 +4,49 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 /**
  * Annotate the target class (e.g., DTO) to generate a mapper from the source class to this target.
  * Example: @AutoMapper(from = User.class) on UserDto will generate UserToUserDtoMapper.
+ * Class retention is required by Gradle for incremental aggregating annotation processing.
  */
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target(TYPE)
 public @interface AutoMapper {
     Class<?> from();
-}
\ No newline at end of file
+
+    /**
+     * Also generate mapStream/mapParallel (and the mapBack counterparts) for large batches.
+     */
+    boolean parallel() default false;
+
+    /**
+     * Batch size at or below which mapParallel maps sequentially; also the size a fork-join task stops splitting at.
+     */
+    int parallelThreshold() default 1024;
+
+    /**
+     * Also generate {Target}View, a target subclass whose getters read the wrapped source until the first write
+     * (copy-on-write), and a view(From) factory on the mapper; materialize() returns a real target.
+     */
+    boolean view() default false;
+
+    /**
+     * Count calls, sample latency and count batch items of the generated map, mapInto, mapPatch, mapAll and
+     * mapParallel methods (and their mapBack counterparts). See com.example.runtime.MethodMetrics.
+     */
+    boolean metrics() default false;
+
+    /**
+     * Which fields mapPatch/mapBackPatch copy onto an existing instance.
+     */
+    PatchStrategy patchStrategy() default PatchStrategy.NON_NULL;
+
+    enum PatchStrategy {
+        /** Copy primitives and every non-null reference; nulls in the input leave the output unchanged. */
+        NON_NULL,
+        /** Copy only values that differ from the output's current value; unreadable output fields are always copied. */
+        CHANGED
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.processor;
+
+import com.example.annotations.AutoAccessor;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.util.*;
+
+import static javax.lang.model.element.Modifier.*;
+
+/**
+ * Generates {TypeName}Accessor, a singleton implementing com.example.runtime.FieldAccessor&lt;T&gt; with:
+ * - fieldCount(), name(int), type(int), indexOf(String) and isWritable(int) backed by constant tables
+ * - get(T, int) and set(T, int, Object) as a switch over the field index
+ * - getBoolean/getByte/.../getDouble(T, int), switching only over the primitive fields that widen to the requested
+ *   primitive, so hot loops avoid boxing
+ * Fields are resolved like AutoMapper's: read with getters, else direct field access (if not private); written with
+ * setters, else direct field assignment (if accessible and not final). Fields that cannot be read are left out;
+ * fields that cannot be written are read-only.
+ * Registered with Gradle as an isolating processor: each accessor depends only on its annotated type.
+ */
+@SupportedAnnotationTypes("com.example.annotations.AutoAccessor")
+@SupportedOptions(ProcessorStats.OPTION)
+public class AutoAccessorProcessor extends AbstractProcessor {
+
+    private static final ClassName FIELD_ACCESSOR = ClassName.get("com.example.runtime", "FieldAccessor");
+
+    private static final TypeKind[] PRIMITIVES = {
+            TypeKind.BOOLEAN, TypeKind.BYTE, TypeKind.SHORT, TypeKind.CHAR,
+            TypeKind.INT, TypeKind.LONG, TypeKind.FLOAT, TypeKind.DOUBLE
+    };
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeModelCache models = TypeModelCache.forRound(roundEnv);
+        ProcessorStats stats = ProcessorStats.of(processingEnv);
+        SourceWriter writer = new SourceWriter(processingEnv, stats);
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(AutoAccessor.class)) {
+            if (!(element instanceof TypeElement)) continue;
+            TypeElement type = (TypeElement) element;
+            if (!type.getTypeParameters().isEmpty()) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@AutoAccessor does not support generic types", type);
+                continue;
+            }
+            long analysisStart = System.nanoTime();
+            ProcessorStats.ElementStats elementStats =
+                    new ProcessorStats.ElementStats("AutoAccessorProcessor", type.getQualifiedName().toString());
+
+            PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+            String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+            String originalName = type.getSimpleName().toString();
+            ClassName typeName = ClassName.get(type);
+            ClassName accessorName = ClassName.get(packageName, originalName + "Accessor");
+
+            TypeModel model = models.get(type);
+            elementStats.fields = model.fields().size();
+            List<Accessor> fields = new ArrayList<>();
+            for (VariableElement field : model.fields().values()) {
+                Accessor accessor = resolve(model, field);
+                if (accessor == null) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                            "Field '" + field.getSimpleName() + "' of " + originalName + " has no public getter and"
+                                    + " no accessible field; it is left out of " + accessorName.simpleName(), field);
+                    elementStats.skippedFields++;
+                    continue;
+                }
+                fields.add(accessor);
+            }
+
+            TypeSpec.Builder accessor = TypeSpec.classBuilder(accessorName)
+                    .addOriginatingElement(type)
+                    .addModifiers(PUBLIC, FINAL)
+                    .addSuperinterface(ParameterizedTypeName.get(FIELD_ACCESSOR, typeName))
+                    .addField(FieldSpec.builder(accessorName, "INSTANCE", PUBLIC, STATIC, FINAL)
+                            .initializer("new $T()", accessorName)
+                            .build())
+                    .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build());
+            addTables(accessor, fields);
+            accessor.addMethod(buildIndexOfMethod(fields))
+                    .addMethod(buildGetMethod(typeName, fields))
+                    .addMethod(buildSetMethod(typeName, originalName, fields));
+            Types types = processingEnv.getTypeUtils();
+            for (TypeKind primitive : PRIMITIVES) {
+                accessor.addMethod(buildPrimitiveGetMethod(typeName, primitive, fields, types));
+            }
+            accessor.addMethod(MethodSpec.methodBuilder("mismatch")
+                    .addModifiers(PRIVATE, STATIC)
+                    .returns(RuntimeException.class)
+                    .addParameter(int.class, "index")
+                    .addParameter(String.class, "type")
+                    .beginControlFlow("if (index < 0 || index >= NAMES.length)")
+                    .addStatement("return new $T(\"Field index \" + index + \" out of range for $L fields\")",
+                            IndexOutOfBoundsException.class, fields.size())
+                    .endControlFlow()
+                    .addStatement("return new $T(\"Field '\" + NAMES[index] + \"' of $L cannot be read as \" + type)",
+                            IllegalArgumentException.class, originalName)
+                    .build());
+
+            JavaFile file = JavaFile.builder(packageName, accessor.build()).build();
+            elementStats.analysisNanos = System.nanoTime() - analysisStart;
+
+            writer.add(file, elementStats, accessorName.simpleName());
+        }
+        writer.flush();
+
+        if (roundEnv.processingOver()) {
+            SourceWriter.shutdown(processingEnv);
+            stats.report(processingEnv.getMessager());
+        }
+        return true;
+    }
+
+    /**
+     * Accessors of a field, or null when it cannot be read.
+     */
+    private static Accessor resolve(TypeModel model, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String getterName = TypeModel.getterName(field);
+        CodeBlock read;
+        if (model.hasPublicMethod(getterName, 0)) {
+            read = CodeBlock.of("instance.$N()", getterName);
+        } else if (!field.getModifiers().contains(PRIVATE)) {
+            read = CodeBlock.of("instance.$N", name);
+        } else {
+            return null;
+        }
+        String setterName = TypeModel.setterName(name);
+        boolean hasSetter = model.hasPublicMethod(setterName, 1);
+        boolean fieldWritable = !field.getModifiers().contains(PRIVATE) && !field.getModifiers().contains(FINAL);
+        return new Accessor(name, field.asType(), read, hasSetter ? setterName : null, hasSetter || fieldWritable);
+    }
+
+    /**
+     * NAMES, TYPES and WRITABLE, indexed like the fields.
+     */
+    private void addTables(TypeSpec.Builder accessor, List<Accessor> fields) {
+        List<CodeBlock> names = new ArrayList<>();
+        List<CodeBlock> classes = new ArrayList<>();
+        List<CodeBlock> writable = new ArrayList<>();
+        for (Accessor f : fields) {
+            names.add(CodeBlock.of("$S", f.name));
+            classes.add(CodeBlock.of("$T.class", TypeName.get(processingEnv.getTypeUtils().erasure(f.type))));
+            writable.add(CodeBlock.of("$L", f.writable));
+        }
+        TypeName anyClass = ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class));
+        accessor.addField(FieldSpec.builder(String[].class, "NAMES", PRIVATE, STATIC, FINAL)
+                        .initializer("{$L}", CodeBlock.join(names, ", "))
+                        .build())
+                .addField(FieldSpec.builder(ArrayTypeName.of(anyClass), "TYPES", PRIVATE, STATIC, FINAL)
+                        .initializer("{$L}", CodeBlock.join(classes, ", "))
+                        .build())
+                .addField(FieldSpec.builder(boolean[].class, "WRITABLE", PRIVATE, STATIC, FINAL)
+                        .initializer("{$L}", CodeBlock.join(writable, ", "))
+                        .build())
+                .addMethod(override("fieldCount", TypeName.INT).addStatement("return $L", fields.size()).build())
+                .addMethod(override("name", ClassName.get(String.class))
+                        .addParameter(int.class, "index")
+                        .addStatement("return NAMES[index]")
+                        .build())
+                .addMethod(override("type", anyClass)
+                        .addParameter(int.class, "index")
+                        .addStatement("return TYPES[index]")
+                        .build())
+                .addMethod(override("isWritable", TypeName.BOOLEAN)
+                        .addParameter(int.class, "index")
+                        .addStatement("return WRITABLE[index]")
+                        .build());
+    }
+
+    private static MethodSpec buildIndexOfMethod(List<Accessor> fields) {
+        MethodSpec.Builder m = override("indexOf", TypeName.INT)
+                .addParameter(String.class, "name")
+                .beginControlFlow("switch (name)");
+        for (int i = 0; i < fields.size(); i++) {
+            m.addStatement("case $S: return $L", fields.get(i).name, i);
+        }
+        return m.addStatement("default: return -1")
+                .endControlFlow()
+                .build();
+    }
+
+    private static MethodSpec buildGetMethod(ClassName typeName, List<Accessor> fields) {
+        MethodSpec.Builder m = override("get", TypeName.OBJECT)
+                .addParameter(typeName, "instance")
+                .addParameter(int.class, "index")
+                .beginControlFlow("switch (index)");
+        for (int i = 0; i < fields.size(); i++) {
+            m.addStatement("case $L: return $L", i, fields.get(i).read);
+        }
+        return m.addStatement("default: throw mismatch(index, $S)", "Object")
+                .endControlFlow()
+                .build();
+    }
+
+    private static MethodSpec buildSetMethod(ClassName typeName, String originalName, List<Accessor> fields) {
+        MethodSpec.Builder m = override("set", TypeName.VOID)
+                .addParameter(typeName, "instance")
+                .addParameter(int.class, "index")
+                .addParameter(Object.class, "value")
+                .beginControlFlow("switch (index)");
+        boolean unchecked = false;
+        for (int i = 0; i < fields.size(); i++) {
+            Accessor f = fields.get(i);
+            if (!f.writable) {
+                m.addStatement("case $L: throw new $T($S)", i, UnsupportedOperationException.class,
+                        "Field '" + f.name + "' of " + originalName + " is read-only");
+                continue;
+            }
+            // Casting to a primitive unboxes the value
+            m.addCode("case $L:\n$>", i)
+                    .addStatement("$L", f.write(CodeBlock.of("($T) value", TypeName.get(f.type))))
+                    .addStatement("return")
+                    .addCode("$<");
+            unchecked |= f.type.getKind() == TypeKind.DECLARED && !((DeclaredType) f.type).getTypeArguments().isEmpty();
+        }
+        if (unchecked) {
+            m.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        }
+        return m.addStatement("default: throw mismatch(index, $S)", "Object")
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * get{Primitive}(instance, index): only primitive fields that widen to the requested primitive have a case.
+     */
+    private static MethodSpec buildPrimitiveGetMethod(ClassName typeName,
+                                                      TypeKind primitive,
+                                                      List<Accessor> fields,
+                                                      Types types) {
+        String typeLabel = primitive.name().toLowerCase(Locale.ROOT);
+        TypeMirror target = types.getPrimitiveType(primitive);
+        MethodSpec.Builder m = override("get" + TypeModel.capitalize(typeLabel), TypeName.get(target))
+                .addParameter(typeName, "instance")
+                .addParameter(int.class, "index")
+                .beginControlFlow("switch (index)");
+        for (int i = 0; i < fields.size(); i++) {
+            Accessor f = fields.get(i);
+            if (f.type.getKind().isPrimitive() && types.isAssignable(f.type, target)) {
+                m.addStatement("case $L: return $L", i, f.read);
+            }
+        }
+        return m.addStatement("default: throw mismatch(index, $S)", typeLabel)
+                .endControlFlow()
+                .build();
+    }
+
+    private static MethodSpec.Builder override(String name, TypeName returnType) {
+        return MethodSpec.methodBuilder(name)
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(returnType);
+    }
+
+    /**
+     * How one field is read (getter or direct field) and, unless it is read-only, written (setter or direct field).
+     */
+    private static final class Accessor {
+        final String name;
+        final TypeMirror type;
+        final CodeBlock read;
+        final String setter;
+        final boolean writable;
+
+        Accessor(String name, TypeMirror type, CodeBlock read, String setter, boolean writable) {
+            this.name = name;
+            this.type = type;
+            this.read = read;
+            this.setter = setter;
+            this.writable = writable;
+        }
+
+        CodeBlock write(CodeBlock value) {
+            return setter != null
+                    ? CodeBlock.of("instance.$N($L)", setter, value)
+                    : CodeBlock.of("instance.$N = $L", name, value);
+        }
+    }
+}
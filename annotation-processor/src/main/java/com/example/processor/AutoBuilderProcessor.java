@@ -2,77 +2,131 @@ package com.example.processor;
 
 import com.example.annotations.AutoBuilder;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.FieldSpec;
 
 import javax.annotation.processing.AbstractProcessor;
-import javax.annotation.processing.Filer;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
-import javax.annotation.processing.SupportedSourceVersion;
+import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
-import javax.lang.model.util.ElementFilter;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
-import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 import static javax.lang.model.element.Modifier.*;
 
 /**
  * Generates a standalone {TypeName}Builder class with:
- * - Fluent setters for each non-static field (method name equals field name).
- * - build() method: tries to use no-args constructor + setters; falls back to direct field assignment if accessible.
+ * - Fluent setters for each value (method name equals field or parameter name).
+ * - build() method, using the first applicable {@link Creator}: a constructor or static factory annotated with
+ *   {@code @AutoBuilder}; a public no-args constructor + setters (direct field assignment if accessible) when no
+ *   field is final; a constructor matching the fields by name and type (the canonical constructor of a record)
+ *   as a single direct call.
+ * - applyTo(T existing): writes only the values that were set. Set values are tracked in a bitset (one long per
+ *   64 values), which build() also uses on the setter path so unset fields keep the constructor's defaults.
+ * - with reusable = true: reset(), buildInto(T existing) and a static threadLocal() accessor.
+ * - with metrics = true: build(), applyTo and buildInto are instrumented (see {@link MetricsInstrumentation}).
+ * Annotations are not claimed. Claiming only hides an annotation from the processors after this one, and
+ * {@link AutoMapperProcessor} also reads @AutoBuilder, for the AutogenMetrics class, wherever it is registered;
+ * with {@code -Xlint:processing}, javac notes that no processor claimed it.
+ * With {@code -Aautogen.fingerprints}, builders whose type is unchanged since the last build are not regenerated
+ * (see {@link Fingerprints}); a round's builders are rendered in parallel when there are many (see {@link SourceWriter}).
+ * Registered with Gradle as an isolating processor: each builder depends only on its annotated type.
  */
 @SupportedAnnotationTypes("com.example.annotations.AutoBuilder")
-@SupportedSourceVersion(SourceVersion.RELEASE_8)
+@SupportedOptions({ProcessorStats.OPTION, Fingerprints.OPTION})
 public class AutoBuilderProcessor extends AbstractProcessor {
 
+    private static final List<String> INSTRUMENTED_METHODS = Arrays.asList("build", "applyTo", "buildInto");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        Filer filer = processingEnv.getFiler();
+        TypeModelCache models = TypeModelCache.forRound(roundEnv);
+        ProcessorStats stats = ProcessorStats.of(processingEnv);
+        Fingerprints fingerprints = Fingerprints.of(processingEnv);
+        SourceWriter writer = new SourceWriter(processingEnv, stats);
 
+        // Annotated type -> annotated constructor or factory (null when only the type is annotated)
+        Map<TypeElement, ExecutableElement> requests = new LinkedHashMap<>();
         for (Element element : roundEnv.getElementsAnnotatedWith(AutoBuilder.class)) {
-            if (!(element instanceof TypeElement)) continue;
-            TypeElement type = (TypeElement) element;
+            if (element instanceof TypeElement) {
+                requests.putIfAbsent((TypeElement) element, null);
+            } else if (element instanceof ExecutableElement && isValidCreator((ExecutableElement) element)) {
+                TypeElement type = (TypeElement) element.getEnclosingElement();
+                ExecutableElement previous = requests.put(type, (ExecutableElement) element);
+                if (previous != null) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "Only one constructor or factory of " + type.getSimpleName() + " may be annotated with @AutoBuilder",
+                            element);
+                }
+            }
+        }
 
+        for (Map.Entry<TypeElement, ExecutableElement> request : requests.entrySet()) {
+            TypeElement type = request.getKey();
             PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
             String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
             String originalName = type.getSimpleName().toString();
             String builderName = originalName + "Builder";
+            ClassName builderClassName = ClassName.get(packageName, builderName);
+
+            // The type's shape (including an annotated creator) is all the builder is derived from. An up to date
+            // builder is still analyzed, so its diagnostics and stats are reported again, but not rendered or written
+            String fingerprint = fingerprints.compute("AutoBuilderProcessor", Collections.singletonList(type));
+            boolean reused = fingerprints.isCurrent(builderClassName.canonicalName(), fingerprint);
 
-            List<VariableElement> fields = ElementFilter.fieldsIn(type.getEnclosedElements())
-                    .stream()
-                    .filter(f -> !f.getModifiers().contains(STATIC))
-                    .collect(Collectors.toList());
+            long analysisStart = System.nanoTime();
+            ProcessorStats.ElementStats elementStats =
+                    new ProcessorStats.ElementStats("AutoBuilderProcessor", type.getQualifiedName().toString());
 
-            List<ExecutableElement> methods = ElementFilter.methodsIn(type.getEnclosedElements());
+            TypeModel model = models.get(type);
+            Creator creator = request.getValue() != null
+                    ? Creator.of(request.getValue())
+                    : Creator.resolve(model, processingEnv.getTypeUtils());
+            List<VariableElement> properties = creator != null
+                    ? creator.properties
+                    : new ArrayList<>(model.fields().values());
+            elementStats.fields = properties.size();
 
-            // Builder fields
+            // Builder fields, plus one bit per value recording whether it was set
             List<FieldSpec> builderFields = new ArrayList<>();
-            for (VariableElement f : fields) {
+            for (VariableElement p : properties) {
                 builderFields.add(FieldSpec.builder(
-                        com.squareup.javapoet.TypeName.get(f.asType()),
-                        f.getSimpleName().toString(),
+                        com.squareup.javapoet.TypeName.get(p.asType()),
+                        p.getSimpleName().toString(),
                         PRIVATE).build());
             }
+            for (int word = 0; word < bitWords(properties.size()); word++) {
+                builderFields.add(FieldSpec.builder(long.class, bitsField(word), PRIVATE).build());
+            }
 
-            // Fluent setters: method name equals field name
+            // Fluent setters: method name equals field (or creator parameter) name
             List<MethodSpec> fluentSetters = new ArrayList<>();
-            ClassName builderClassName = ClassName.get(packageName, builderName);
-            for (VariableElement f : fields) {
-                String fname = f.getSimpleName().toString();
+            for (int i = 0; i < properties.size(); i++) {
+                VariableElement p = properties.get(i);
+                String pname = p.getSimpleName().toString();
                 ParameterSpec param = ParameterSpec.builder(
-                        com.squareup.javapoet.TypeName.get(f.asType()), fname).build();
-                MethodSpec setter = MethodSpec.methodBuilder(fname)
+                        com.squareup.javapoet.TypeName.get(p.asType()), pname).build();
+                MethodSpec setter = MethodSpec.methodBuilder(pname)
                         .addModifiers(PUBLIC)
                         .returns(builderClassName)
                         .addParameter(param)
-                        .addStatement("this.$N = $N", fname, fname)
+                        .addStatement("this.$N = $N", pname, pname)
+                        .addStatement("this.$N |= $L", bitsField(i / 64), bitMask(i))
                         .addStatement("return this")
                         .build();
                 fluentSetters.add(setter);
@@ -84,74 +138,239 @@ public class AutoBuilderProcessor extends AbstractProcessor {
                     .addModifiers(PUBLIC)
                     .returns(originalTypeName);
 
-            boolean hasNoArgCtor = methods.stream()
-                    .filter(m -> m.getKind() == ElementKind.CONSTRUCTOR)
-                    .anyMatch(m -> m.getParameters().isEmpty() && m.getModifiers().contains(PUBLIC));
-
-            if (hasNoArgCtor) {
+            if (creator == null) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.WARNING,
+                        "No public no-args constructor or constructor matching the fields by name and type found for "
+                                + originalName + ". Generated builder may fail.");
+                buildMethod.addComment("Cannot find suitable constructor; returning null to avoid compile error")
+                        .addStatement("return null");
+            } else if (creator.kind == Creator.Kind.SETTERS) {
+                // Only values that were set are written; the others keep the constructor's defaults
                 buildMethod.addStatement("$T instance = new $T()", originalTypeName, originalTypeName);
-                for (VariableElement f : fields) {
-                    String fname = f.getSimpleName().toString();
-                    String setterName = "set" + capitalize(fname);
-                    Optional<ExecutableElement> setter = methods.stream()
-                            .filter(m -> m.getSimpleName().contentEquals(setterName)
-                                    && m.getParameters().size() == 1)
-                            .findFirst();
-                    if (setter.isPresent()) {
-                        buildMethod.addStatement("instance.$N(this.$N)", setterName, fname);
-                    } else if (!f.getModifiers().contains(PRIVATE)) {
-                        buildMethod.addStatement("instance.$N = this.$N", fname, fname);
+                for (int i = 0; i < properties.size(); i++) {
+                    String pname = properties.get(i).getSimpleName().toString();
+                    CodeBlock assignment = assignment(model, pname, "instance");
+                    if (assignment != null) {
+                        buildMethod.beginControlFlow("if ($L)", isSet(i))
+                                .addStatement("$L", assignment)
+                                .endControlFlow();
                     } else {
                         processingEnv.getMessager().printMessage(
                                 Diagnostic.Kind.NOTE,
-                                "No setter and field is private for '" + fname + "' in " + originalName +
-                                        ". The generated code may not compile.");
-                        buildMethod.addComment("No setter and field is private: $N", fname);
+                                "No setter and field is private or final for '" + pname + "' in " + originalName +
+                                        ". It is not set by the builder.");
+                        buildMethod.addComment("No setter and field is private or final: $N", pname);
+                        elementStats.skippedFields++;
                     }
                 }
                 buildMethod.addStatement("return instance");
             } else {
-                // Fallback: try to find an all-args public constructor with same number of non-static fields (order by declaration)
-                List<ExecutableElement> ctors = methods.stream()
-                        .filter(m -> m.getKind() == ElementKind.CONSTRUCTOR && m.getModifiers().contains(PUBLIC))
-                        .collect(Collectors.toList());
-                Optional<ExecutableElement> matchingCtor = ctors.stream()
-                        .filter(c -> c.getParameters().size() == fields.size())
-                        .findFirst();
-
-                if (matchingCtor.isPresent()) {
-                    String args = fields.stream().map(f -> "this." + f.getSimpleName().toString())
-                            .collect(Collectors.joining(", "));
-                    buildMethod.addStatement("return new $T($L)", originalTypeName, args);
-                } else {
-                    processingEnv.getMessager().printMessage(
-                            Diagnostic.Kind.WARNING,
-                            "No public no-args constructor or matching all-args constructor found for " + originalName +
-                                    ". Generated builder may fail.");
-                    buildMethod.addComment("Cannot find suitable constructor; returning null to avoid compile error")
-                            .addStatement("return null");
+                // Single constructor / factory call with every value
+                List<CodeBlock> args = new ArrayList<>();
+                for (VariableElement p : properties) {
+                    args.add(CodeBlock.of("this.$N", p.getSimpleName().toString()));
                 }
+                buildMethod.addStatement("return $L", creator.invocation(originalTypeName, args));
             }
 
-            TypeSpec builder = TypeSpec.classBuilder(builderName)
+            TypeSpec.Builder builder = TypeSpec.classBuilder(builderName)
+                    .addOriginatingElement(type)
                     .addModifiers(PUBLIC)
                     .addFields(builderFields)
                     .addMethods(fluentSetters)
-                    .addMethod(buildMethod.build())
-                    .build();
-
-            try {
-                JavaFile.builder(packageName, builder).build().writeTo(filer);
-            } catch (IOException e) {
-                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
-                        "Failed to write builder for " + originalName + ": " + e.getMessage());
+                    .addMethod(buildMethod.build());
+
+            boolean settersPath = creator != null && creator.kind == Creator.Kind.SETTERS;
+            addApplyTo(builder, originalTypeName, model, properties, settersPath);
+
+            if (option(type, request.getValue(), AutoBuilder::reusable)) {
+                addReuseMethods(builder, builderClassName, originalTypeName, model, properties, settersPath);
+            }
+            if (option(type, request.getValue(), AutoBuilder::metrics)) {
+                MetricsInstrumentation.instrument(builder, builderClassName, INSTRUMENTED_METHODS);
+            }
+            JavaFile file = JavaFile.builder(packageName, builder.build()).build();
+            elementStats.analysisNanos = System.nanoTime() - analysisStart;
+
+            if (reused) {
+                writer.reuse(file, elementStats);
+            } else {
+                writer.add(file, elementStats, "builder for " + originalName);
+                fingerprints.record(builderClassName.canonicalName(), fingerprint);
             }
         }
+        writer.flush();
 
+        if (roundEnv.processingOver()) {
+            SourceWriter.shutdown(processingEnv);
+            stats.report(processingEnv.getMessager());
+            fingerprints.save(processingEnv.getMessager());
+        }
+        // Not claimed: see the class comment
+        return false;
+    }
+
+    /**
+     * An annotated constructor must be non-private; an annotated method must be a non-private static factory
+     * returning its enclosing type.
+     */
+    private boolean isValidCreator(ExecutableElement executable) {
+        TypeElement type = (TypeElement) executable.getEnclosingElement();
+        String problem = null;
+        if (executable.getModifiers().contains(PRIVATE)) {
+            problem = "must not be private";
+        } else if (executable.getKind() == ElementKind.METHOD) {
+            Types types = processingEnv.getTypeUtils();
+            if (!executable.getModifiers().contains(STATIC)) {
+                problem = "must be a static factory method";
+            } else if (!types.isSameType(types.erasure(executable.getReturnType()), types.erasure(type.asType()))) {
+                problem = "must return " + type.getSimpleName();
+            }
+        }
+        if (problem != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "@AutoBuilder " + executable.getKind().toString().toLowerCase(Locale.ROOT) + " " + problem, executable);
+            return false;
+        }
         return true;
     }
 
-    private static String capitalize(String s) {
-        return (s == null || s.isEmpty()) ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    /**
+     * Whether an @AutoBuilder attribute is set on the type or on its annotated constructor or factory.
+     */
+    static boolean option(TypeElement type, ExecutableElement creator, Predicate<AutoBuilder> attribute) {
+        AutoBuilder onType = type.getAnnotation(AutoBuilder.class);
+        AutoBuilder onCreator = creator == null ? null : creator.getAnnotation(AutoBuilder.class);
+        return (onType != null && attribute.test(onType)) || (onCreator != null && attribute.test(onCreator));
+    }
+
+    /**
+     * Statement writing the builder's value of {@code name} into {@code var} through its setter, or by direct
+     * assignment when the same-named field is neither private nor final; null when neither is possible.
+     */
+    private static CodeBlock assignment(TypeModel model, String name, String var) {
+        String setterName = TypeModel.setterName(name);
+        if (model.findMethod(setterName, 1).isPresent()) {
+            return CodeBlock.of("$N.$N(this.$N)", var, setterName, name);
+        }
+        VariableElement field = model.fields().get(name);
+        if (field != null && !field.getModifiers().contains(PRIVATE) && !field.getModifiers().contains(FINAL)) {
+            return CodeBlock.of("$N.$N = this.$N", var, name, name);
+        }
+        return null;
+    }
+
+    /**
+     * applyTo(existing): writes only the values that were set on this builder, e.g. for partial updates.
+     * Like buildInto, it is left out when the type is built through a constructor or factory and some value
+     * cannot be written afterwards.
+     */
+    private void addApplyTo(TypeSpec.Builder builder,
+                            ClassName originalTypeName,
+                            TypeModel model,
+                            List<VariableElement> properties,
+                            boolean settersPath) {
+        MethodSpec.Builder applyTo = MethodSpec.methodBuilder("applyTo")
+                .addJavadoc("Writes only the values set on this builder into an existing instance.\n")
+                .addModifiers(PUBLIC)
+                .returns(originalTypeName)
+                .addParameter(originalTypeName, "existing");
+        boolean allWritable = true;
+        for (int i = 0; i < properties.size(); i++) {
+            String pname = properties.get(i).getSimpleName().toString();
+            CodeBlock assignment = assignment(model, pname, "existing");
+            if (assignment != null) {
+                applyTo.beginControlFlow("if ($L)", isSet(i))
+                        .addStatement("$L", assignment)
+                        .endControlFlow();
+            } else {
+                applyTo.addComment("No setter and field is not assignable: $N", pname);
+                allWritable = false;
+            }
+        }
+        if (settersPath || allWritable) {
+            builder.addMethod(applyTo.addStatement("return existing").build());
+        }
+    }
+
+    private static int bitWords(int properties) {
+        return (properties + 63) / 64;
+    }
+
+    private static String bitsField(int word) {
+        return "setBits" + word;
+    }
+
+    private static String bitMask(int index) {
+        return "1L << " + (index % 64);
+    }
+
+    /**
+     * Condition that the value at {@code index} was set on the builder.
+     */
+    private static CodeBlock isSet(int index) {
+        return CodeBlock.of("(this.$N & ($L)) != 0", bitsField(index / 64), bitMask(index));
+    }
+
+    /**
+     * reset(), buildInto(existing) and threadLocal() for reusable builders. buildInto is left out when the type
+     * is built through a constructor or factory and some value cannot be written afterwards.
+     */
+    private void addReuseMethods(TypeSpec.Builder builder,
+                                 ClassName builderClassName,
+                                 ClassName originalTypeName,
+                                 TypeModel model,
+                                 List<VariableElement> fields,
+                                 boolean settersPath) {
+        MethodSpec.Builder reset = MethodSpec.methodBuilder("reset")
+                .addJavadoc("Clears every value back to its default so the builder can be reused.\n")
+                .addModifiers(PUBLIC)
+                .returns(builderClassName);
+        for (VariableElement f : fields) {
+            TypeKind kind = f.asType().getKind();
+            reset.addStatement("this.$N = $L", f.getSimpleName().toString(),
+                    kind.isPrimitive() ? Conversions.defaultValue(kind) : "null");
+        }
+        for (int word = 0; word < bitWords(fields.size()); word++) {
+            reset.addStatement("this.$N = 0L", bitsField(word));
+        }
+        builder.addMethod(reset.addStatement("return this").build());
+
+        MethodSpec.Builder buildInto = MethodSpec.methodBuilder("buildInto")
+                .addJavadoc("Writes the builder's values into an existing instance instead of allocating a new one.\n")
+                .addModifiers(PUBLIC)
+                .returns(originalTypeName)
+                .addParameter(originalTypeName, "existing");
+        String notWritable = null;
+        for (VariableElement f : fields) {
+            CodeBlock assignment = assignment(model, f.getSimpleName().toString(), "existing");
+            if (assignment != null) {
+                buildInto.addStatement("$L", assignment);
+            } else {
+                buildInto.addComment("No setter and field is not assignable: $N", f.getSimpleName().toString());
+                if (notWritable == null) notWritable = f.getSimpleName().toString();
+            }
+        }
+        if (settersPath || notWritable == null) {
+            builder.addMethod(buildInto.addStatement("return existing").build());
+        } else {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "buildInto is not generated for " + originalTypeName.simpleName() + ": field '" + notWritable
+                            + "' has no setter and cannot be assigned.", model.type());
+        }
+
+        builder.addField(FieldSpec.builder(
+                        ParameterizedTypeName.get(ClassName.get(ThreadLocal.class), builderClassName),
+                        "THREAD_LOCAL", PRIVATE, STATIC, FINAL)
+                .initializer("$T.withInitial($T::new)", ThreadLocal.class, builderClassName)
+                .build());
+        builder.addMethod(MethodSpec.methodBuilder("threadLocal")
+                .addJavadoc("Reset builder owned by the calling thread. Every call on a thread returns the same instance,\n"
+                        + "so finish building before calling this again on that thread.\n")
+                .addModifiers(PUBLIC, STATIC)
+                .returns(builderClassName)
+                .addStatement("return THREAD_LOCAL.get().reset()")
+                .build());
     }
 }
\ No newline at end of file
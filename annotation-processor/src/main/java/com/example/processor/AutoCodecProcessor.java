@@ -0,0 +1,425 @@
+package com.example.processor;
+
+import com.example.annotations.AutoCodec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static javax.lang.model.element.Modifier.*;
+
+/**
+ * Generates {TypeName}Codec with:
+ * - public static int sizeOf(T value): the encoded size, e.g. to allocate a buffer
+ * - public static void write(T value, ByteBuffer buffer)
+ * - public static T read(ByteBuffer buffer)
+ * - public static T readInto(ByteBuffer buffer, T existing), when every value can be written after construction
+ * Values are encoded in creator order (see {@link Creator}) as described in {@link Encodings}, using only the
+ * relative ByteBuffer methods, so heap, direct and memory-mapped buffers work alike. Encoding allocates nothing;
+ * decoding allocates only the decoded objects (strings are decoded straight from heap buffers, and through a
+ * reused per-thread scratch array otherwise).
+ * Values are read with getters, else direct field access (if not private), and written with setters, else direct
+ * field assignment (if accessible and not final). On the setter path, transient fields and fields that cannot be
+ * written are left out.
+ * Registered with Gradle as an isolating processor: each codec depends only on its annotated type.
+ */
+@SupportedAnnotationTypes("com.example.annotations.AutoCodec")
+@SupportedOptions(ProcessorStats.OPTION)
+public class AutoCodecProcessor extends AbstractProcessor {
+
+    private Encodings encodings;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        encodings = new Encodings(processingEnv.getTypeUtils(), processingEnv.getElementUtils());
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeModelCache models = TypeModelCache.forRound(roundEnv);
+        ProcessorStats stats = ProcessorStats.of(processingEnv);
+        SourceWriter writer = new SourceWriter(processingEnv, stats);
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(AutoCodec.class)) {
+            if (!(element instanceof TypeElement)) continue;
+            TypeElement type = (TypeElement) element;
+            long analysisStart = System.nanoTime();
+            ProcessorStats.ElementStats elementStats =
+                    new ProcessorStats.ElementStats("AutoCodecProcessor", type.getQualifiedName().toString());
+
+            TypeModel model = models.get(type);
+            Creator creator = Creator.resolve(model, processingEnv.getTypeUtils());
+            if (creator == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "No public no-args constructor or constructor matching the fields by name and type found for "
+                                + "@AutoCodec on " + type.getSimpleName(), type);
+                continue;
+            }
+            boolean settersPath = creator.kind == Creator.Kind.SETTERS;
+            elementStats.fields = creator.properties.size();
+
+            List<CodecField> fields = resolveFields(model, creator, elementStats);
+            if (fields == null) continue;
+
+            ClassName typeName = ClassName.get(type);
+            ClassName codecName = encodings.codecName(type);
+            TypeSpec.Builder codec = TypeSpec.classBuilder(codecName)
+                    .addOriginatingElement(type)
+                    .addModifiers(PUBLIC, FINAL)
+                    .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build())
+                    .addMethod(buildSizeOfMethod(typeName, fields))
+                    .addMethod(buildWriteMethod(typeName, fields));
+
+            boolean allWritable = fields.stream().allMatch(f -> f.setter != null || f.fieldWritable);
+            MethodSpec.Builder read = MethodSpec.methodBuilder("read")
+                    .addModifiers(PUBLIC, STATIC)
+                    .returns(typeName)
+                    .addParameter(ByteBuffer.class, "buffer");
+            if (settersPath) {
+                read.addStatement("return readInto(buffer, new $T())", typeName);
+            } else {
+                List<CodeBlock> args = new ArrayList<>();
+                for (CodecField f : fields) {
+                    args.add(f.encoding.read());
+                }
+                read.addStatement("return $L", creator.invocation(typeName, args));
+            }
+            codec.addMethod(read.build());
+            if (settersPath || allWritable) {
+                codec.addMethod(buildReadIntoMethod(typeName, fields));
+            }
+            addHelpers(codec, fields);
+
+            JavaFile file = JavaFile.builder(codecName.packageName(), codec.build()).build();
+            elementStats.analysisNanos = System.nanoTime() - analysisStart;
+
+            writer.add(file, elementStats, "codec for " + type.getSimpleName());
+        }
+        writer.flush();
+
+        if (roundEnv.processingOver()) {
+            SourceWriter.shutdown(processingEnv);
+            stats.report(processingEnv.getMessager());
+        }
+        return true;
+    }
+
+    /**
+     * Resolves accessors and encodings of the creator's values, in order. Returns null after reporting an error
+     * when a value cannot be read or has no encoding.
+     */
+    private List<CodecField> resolveFields(TypeModel model, Creator creator, ProcessorStats.ElementStats elementStats) {
+        boolean settersPath = creator.kind == Creator.Kind.SETTERS;
+        List<CodecField> fields = new ArrayList<>();
+        boolean valid = true;
+        for (VariableElement property : creator.properties) {
+            String name = property.getSimpleName().toString();
+            VariableElement field = model.fields().get(name);
+            if (settersPath && field.getModifiers().contains(TRANSIENT)) {
+                elementStats.skippedFields++;
+                continue;
+            }
+
+            String getterName = field == null ? null : TypeModel.getterName(field);
+            boolean hasGetter = getterName != null && model.hasPublicMethod(getterName, 0);
+            if (!hasGetter && (field == null || field.getModifiers().contains(PRIVATE))) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@AutoCodec value '" + name + "' of " + model.type().getSimpleName()
+                                + " has no public getter and no accessible field", property);
+                valid = false;
+                continue;
+            }
+
+            String setterName = TypeModel.setterName(name);
+            boolean hasSetter = model.hasPublicMethod(setterName, 1);
+            boolean fieldWritable = field != null
+                    && !(field.getModifiers().contains(PRIVATE) || field.getModifiers().contains(FINAL));
+            if (settersPath && !hasSetter && !fieldWritable) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "Field '" + name + "' of " + model.type().getSimpleName()
+                                + " cannot be written and is left out of the codec", property);
+                elementStats.skippedFields++;
+                continue;
+            }
+
+            Encodings.Encoding encoding = encodings.find(property.asType());
+            if (encoding == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Unsupported type for @AutoCodec value '" + name + "': " + property.asType()
+                                + ". Supported are primitives, boxed primitives, String, enums and @AutoCodec types.",
+                        property);
+                valid = false;
+                continue;
+            }
+            fields.add(new CodecField(name, property.asType(),
+                    hasGetter ? getterName : null, hasSetter ? setterName : null, fieldWritable, encoding));
+        }
+        return valid ? fields : null;
+    }
+
+    private MethodSpec buildSizeOfMethod(ClassName typeName, List<CodecField> fields) {
+        MethodSpec.Builder m = MethodSpec.methodBuilder("sizeOf")
+                .addModifiers(PUBLIC, STATIC)
+                .returns(int.class)
+                .addParameter(typeName, "value");
+        int fixed = 0;
+        List<CodecField> variable = new ArrayList<>();
+        for (CodecField f : fields) {
+            if (f.encoding.fixedSize() >= 0) {
+                fixed += f.encoding.fixedSize();
+            } else {
+                variable.add(f);
+            }
+        }
+        if (variable.isEmpty()) {
+            return m.addStatement("return $L", fixed).build();
+        }
+        m.addStatement("int size = $L", fixed);
+        for (CodecField f : variable) {
+            CodeBlock value = f.read("value");
+            if (f.encoding.readsTwice()) {
+                m.addStatement("$T $N = $L", f.type, f.local(), value);
+                value = CodeBlock.of("$N", f.local());
+            }
+            m.addStatement("size += $L", f.encoding.size(value));
+        }
+        return m.addStatement("return size").build();
+    }
+
+    private MethodSpec buildWriteMethod(ClassName typeName, List<CodecField> fields) {
+        MethodSpec.Builder m = MethodSpec.methodBuilder("write")
+                .addModifiers(PUBLIC, STATIC)
+                .addParameter(typeName, "value")
+                .addParameter(ByteBuffer.class, "buffer");
+        for (CodecField f : fields) {
+            CodeBlock value = f.read("value");
+            if (f.encoding.readsTwice()) {
+                m.addStatement("$T $N = $L", f.type, f.local(), value);
+                value = CodeBlock.of("$N", f.local());
+            }
+            m.addCode(f.encoding.write(value));
+        }
+        return m.build();
+    }
+
+    private MethodSpec buildReadIntoMethod(ClassName typeName, List<CodecField> fields) {
+        MethodSpec.Builder m = MethodSpec.methodBuilder("readInto")
+                .addModifiers(PUBLIC, STATIC)
+                .returns(typeName)
+                .addParameter(ByteBuffer.class, "buffer")
+                .addParameter(typeName, "existing");
+        for (CodecField f : fields) {
+            m.addStatement("$L", f.write("existing", f.encoding.read()));
+        }
+        return m.addStatement("return existing").build();
+    }
+
+    /**
+     * Private helpers used by the generated methods: string encoding and cached enum constants.
+     */
+    private void addHelpers(TypeSpec.Builder codec, List<CodecField> fields) {
+        Set<ClassName> enums = new LinkedHashSet<>();
+        boolean strings = false;
+        for (CodecField f : fields) {
+            if (f.encoding.kind == Encodings.Kind.ENUM) enums.add(f.encoding.type);
+            if (f.encoding.kind == Encodings.Kind.STRING) strings = true;
+        }
+
+        for (ClassName enumType : enums) {
+            // values() copies its array on every call
+            codec.addField(FieldSpec.builder(ArrayTypeName.of(enumType), Encodings.valuesConstant(enumType),
+                            PRIVATE, STATIC, FINAL)
+                    .initializer("$T.values()", enumType)
+                    .build());
+        }
+        if (!enums.isEmpty()) {
+            TypeVariableName e = TypeVariableName.get("E");
+            codec.addMethod(MethodSpec.methodBuilder("constant")
+                    .addModifiers(PRIVATE, STATIC)
+                    .addTypeVariable(e)
+                    .returns(e)
+                    .addParameter(ArrayTypeName.of(e), "values")
+                    .addParameter(int.class, "ordinal")
+                    .addStatement("return ordinal >= 0 ? values[ordinal] : null")
+                    .build());
+        }
+
+        if (strings) {
+            codec.addField(FieldSpec.builder(ParameterizedTypeName.get(ThreadLocal.class, byte[].class),
+                            "STRING_SCRATCH", PRIVATE, STATIC, FINAL)
+                    .initializer("$T.withInitial(() -> new byte[64])", ThreadLocal.class)
+                    .build());
+            codec.addMethod(buildStringSizeMethod());
+            codec.addMethod(buildPutStringMethod());
+            codec.addMethod(buildGetStringMethod());
+        }
+    }
+
+    /**
+     * Encoded size of a string: the length prefix plus its UTF-8 length, counted without encoding it.
+     */
+    private static MethodSpec buildStringSizeMethod() {
+        return MethodSpec.methodBuilder("stringSize")
+                .addModifiers(PRIVATE, STATIC)
+                .returns(int.class)
+                .addParameter(String.class, "value")
+                .beginControlFlow("if (value == null)")
+                .addStatement("return 4")
+                .endControlFlow()
+                .addStatement("int length = value.length()")
+                .addStatement("int size = 4 + length")
+                .beginControlFlow("for (int i = 0; i < length; i++)")
+                .addStatement("char c = value.charAt(i)")
+                .beginControlFlow("if (c < 0x80)")
+                .addStatement("continue")
+                .endControlFlow()
+                .beginControlFlow("if (c < 0x800)")
+                .addStatement("size += 1")
+                .nextControlFlow("else if ($T.isHighSurrogate(c) && i + 1 < length && $T.isLowSurrogate(value.charAt(i + 1)))",
+                        Character.class, Character.class)
+                .addStatement("size += 2")
+                .addStatement("i++")
+                .nextControlFlow("else if (!$T.isSurrogate(c))", Character.class)
+                .addStatement("size += 2")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return size")
+                .build();
+    }
+
+    /**
+     * Writes a placeholder length, encodes the string char by char and patches the length in afterwards.
+     * Unpaired surrogates are written as '?', like {@link String#getBytes(java.nio.charset.Charset)}.
+     */
+    private static MethodSpec buildPutStringMethod() {
+        return MethodSpec.methodBuilder("putString")
+                .addModifiers(PRIVATE, STATIC)
+                .addParameter(ByteBuffer.class, "buffer")
+                .addParameter(String.class, "value")
+                .beginControlFlow("if (value == null)")
+                .addStatement("buffer.putInt(-1)")
+                .addStatement("return")
+                .endControlFlow()
+                .addStatement("int start = buffer.position()")
+                .addStatement("buffer.putInt(0)")
+                .addStatement("int length = value.length()")
+                .beginControlFlow("for (int i = 0; i < length; i++)")
+                .addStatement("char c = value.charAt(i)")
+                .beginControlFlow("if (c < 0x80)")
+                .addStatement("buffer.put((byte) c)")
+                .nextControlFlow("else if (c < 0x800)")
+                .addStatement("buffer.put((byte) (0xC0 | c >> 6))")
+                .addStatement("buffer.put((byte) (0x80 | c & 0x3F))")
+                .nextControlFlow("else if ($T.isHighSurrogate(c) && i + 1 < length && $T.isLowSurrogate(value.charAt(i + 1)))",
+                        Character.class, Character.class)
+                .addStatement("int codePoint = $T.toCodePoint(c, value.charAt(++i))", Character.class)
+                .addStatement("buffer.put((byte) (0xF0 | codePoint >> 18))")
+                .addStatement("buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F))")
+                .addStatement("buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F))")
+                .addStatement("buffer.put((byte) (0x80 | codePoint & 0x3F))")
+                .nextControlFlow("else if ($T.isSurrogate(c))", Character.class)
+                .addStatement("buffer.put((byte) '?')")
+                .nextControlFlow("else")
+                .addStatement("buffer.put((byte) (0xE0 | c >> 12))")
+                .addStatement("buffer.put((byte) (0x80 | c >> 6 & 0x3F))")
+                .addStatement("buffer.put((byte) (0x80 | c & 0x3F))")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("buffer.putInt(start, buffer.position() - start - 4)")
+                .build();
+    }
+
+    /**
+     * Decodes straight from the backing array of heap buffers; other buffers are copied into a per-thread
+     * scratch array first.
+     */
+    private static MethodSpec buildGetStringMethod() {
+        return MethodSpec.methodBuilder("getString")
+                .addModifiers(PRIVATE, STATIC)
+                .returns(String.class)
+                .addParameter(ByteBuffer.class, "buffer")
+                .addStatement("int length = buffer.getInt()")
+                .beginControlFlow("if (length < 0)")
+                .addStatement("return null")
+                .endControlFlow()
+                .beginControlFlow("if (length > buffer.remaining())")
+                .addStatement("throw new $T()", BufferUnderflowException.class)
+                .endControlFlow()
+                .beginControlFlow("if (buffer.hasArray())")
+                .addStatement("int position = buffer.position()")
+                .addStatement("buffer.position(position + length)")
+                .addStatement("return new String(buffer.array(), buffer.arrayOffset() + position, length, $T.UTF_8)",
+                        StandardCharsets.class)
+                .endControlFlow()
+                .addStatement("byte[] scratch = STRING_SCRATCH.get()")
+                .beginControlFlow("if (scratch.length < length)")
+                .addStatement("scratch = new byte[Math.max(length, scratch.length * 2)]")
+                .addStatement("STRING_SCRATCH.set(scratch)")
+                .endControlFlow()
+                .addStatement("buffer.get(scratch, 0, length)")
+                .addStatement("return new String(scratch, 0, length, $T.UTF_8)", StandardCharsets.class)
+                .build();
+    }
+
+    /**
+     * One encoded value: how it is read from an instance (getter or direct field), how it is written back
+     * (setter or direct field) and its encoding.
+     */
+    private static final class CodecField {
+        final String name;
+        final TypeMirror type;
+        final String getter;
+        final String setter;
+        final boolean fieldWritable;
+        final Encodings.Encoding encoding;
+
+        CodecField(String name, TypeMirror type, String getter, String setter, boolean fieldWritable,
+                   Encodings.Encoding encoding) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+            this.fieldWritable = fieldWritable;
+            this.encoding = encoding;
+        }
+
+        String local() {
+            return name + "Value";
+        }
+
+        CodeBlock read(String var) {
+            return getter != null ? CodeBlock.of("$N.$N()", var, getter) : CodeBlock.of("$N.$N", var, name);
+        }
+
+        CodeBlock write(String var, CodeBlock value) {
+            return setter != null
+                    ? CodeBlock.of("$N.$N($L)", var, setter, value)
+                    : CodeBlock.of("$N.$N = $L", var, name, value);
+        }
+    }
+}
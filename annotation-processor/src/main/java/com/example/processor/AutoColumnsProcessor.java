@@ -0,0 +1,248 @@
+package com.example.processor;
+
+import com.example.annotations.AutoColumns;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.util.*;
+
+import static javax.lang.model.element.Modifier.*;
+
+/**
+ * Generates a {TypeName}Columns struct-of-arrays companion with:
+ * - one public final array per field, named after the field; primitive fields use primitive arrays
+ * - public {TypeName}Columns(int size) allocating every column, and size()
+ * - public static {TypeName}Columns fromRows(List&lt;? extends T&gt; rows)
+ * - public T row(int index) and public List&lt;T&gt; toRows(), when the type has a {@link Creator}
+ * Values are read with getters, else direct field access (if not private); fields that cannot be read get no
+ * column. Rows are created like AutoBuilder's build(): a no-args constructor + setters (direct field assignment if
+ * accessible), or a constructor matching the fields by name and type (the canonical constructor of a record).
+ * Registered with Gradle as an isolating processor: each companion depends only on its annotated type.
+ */
+@SupportedAnnotationTypes("com.example.annotations.AutoColumns")
+@SupportedOptions(ProcessorStats.OPTION)
+public class AutoColumnsProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeModelCache models = TypeModelCache.forRound(roundEnv);
+        ProcessorStats stats = ProcessorStats.of(processingEnv);
+        SourceWriter writer = new SourceWriter(processingEnv, stats);
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(AutoColumns.class)) {
+            if (!(element instanceof TypeElement)) continue;
+            TypeElement type = (TypeElement) element;
+            if (!type.getTypeParameters().isEmpty()) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@AutoColumns does not support generic types", type);
+                continue;
+            }
+            long analysisStart = System.nanoTime();
+            ProcessorStats.ElementStats elementStats =
+                    new ProcessorStats.ElementStats("AutoColumnsProcessor", type.getQualifiedName().toString());
+
+            PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+            String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+            String originalName = type.getSimpleName().toString();
+            ClassName rowName = ClassName.get(type);
+            ClassName columnsName = ClassName.get(packageName, originalName + "Columns");
+
+            TypeModel model = models.get(type);
+            Creator creator = Creator.resolve(model, processingEnv.getTypeUtils());
+            List<VariableElement> properties = creator != null
+                    ? creator.properties
+                    : new ArrayList<>(model.fields().values());
+            elementStats.fields = properties.size();
+
+            // Readable values, in creator order; each gets a column
+            Map<String, CodeBlock> readers = new LinkedHashMap<>();
+            List<VariableElement> columns = new ArrayList<>();
+            for (VariableElement p : properties) {
+                String name = p.getSimpleName().toString();
+                CodeBlock reader = reader(model, name, "row");
+                if (reader == null) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                            "Field '" + name + "' of " + originalName + " has no public getter and no accessible field;"
+                                    + " it gets no column", p);
+                    elementStats.skippedFields++;
+                    continue;
+                }
+                readers.put(name, reader);
+                columns.add(p);
+            }
+            String sizeField = sizeFieldName(readers.keySet());
+
+            TypeSpec.Builder companion = TypeSpec.classBuilder(columnsName)
+                    .addOriginatingElement(type)
+                    .addModifiers(PUBLIC, FINAL)
+                    .addField(int.class, sizeField, PRIVATE, FINAL);
+
+            // Columns and the constructor allocating them
+            MethodSpec.Builder ctor = MethodSpec.constructorBuilder()
+                    .addModifiers(PUBLIC)
+                    .addParameter(int.class, "size")
+                    .addStatement("this.$N = size", sizeField);
+            boolean generic = false;
+            for (VariableElement c : columns) {
+                String name = c.getSimpleName().toString();
+                TypeMirror valueType = c.asType();
+                companion.addField(ArrayTypeName.of(TypeName.get(valueType)), name, PUBLIC, FINAL);
+                TypeMirror erasure = processingEnv.getTypeUtils().erasure(valueType);
+                if (valueType.getKind() == TypeKind.DECLARED && !((DeclaredType) valueType).getTypeArguments().isEmpty()) {
+                    // Arrays of parameterized types cannot be created directly
+                    ctor.addStatement("this.$N = ($T) new $T[size]", name,
+                            ArrayTypeName.of(TypeName.get(valueType)), TypeName.get(erasure));
+                    generic = true;
+                } else {
+                    ctor.addStatement("this.$N = new $T[size]", name, TypeName.get(valueType));
+                }
+            }
+            if (generic) {
+                ctor.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                        .addMember("value", "$S", "unchecked")
+                        .build());
+            }
+            companion.addMethod(ctor.build())
+                    .addMethod(MethodSpec.methodBuilder("size")
+                            .addModifiers(PUBLIC)
+                            .returns(int.class)
+                            .addStatement("return $N", sizeField)
+                            .build());
+
+            // fromRows: one pass over the rows, writing every column at the row's index
+            TypeName rowList = ParameterizedTypeName.get(ClassName.get(List.class), WildcardTypeName.subtypeOf(rowName));
+            MethodSpec.Builder fromRows = MethodSpec.methodBuilder("fromRows")
+                    .addModifiers(PUBLIC, STATIC)
+                    .returns(columnsName)
+                    .addParameter(rowList, "rows")
+                    .addStatement("$T columns = new $T(rows.size())", columnsName, columnsName)
+                    .addStatement("int i = 0")
+                    .beginControlFlow("for ($T row : rows)", rowName);
+            for (Map.Entry<String, CodeBlock> reader : readers.entrySet()) {
+                fromRows.addStatement("columns.$N[i] = $L", reader.getKey(), reader.getValue());
+            }
+            companion.addMethod(fromRows.addStatement("i++")
+                    .endControlFlow()
+                    .addStatement("return columns")
+                    .build());
+
+            MethodSpec row = buildRowMethod(model, creator, rowName, readers.keySet());
+            if (row != null) {
+                TypeName outList = ParameterizedTypeName.get(ClassName.get(List.class), rowName);
+                companion.addMethod(row)
+                        .addMethod(MethodSpec.methodBuilder("toRows")
+                                .addModifiers(PUBLIC)
+                                .returns(outList)
+                                .addStatement("$T rows = new $T<>($N)", outList, ArrayList.class, sizeField)
+                                .beginControlFlow("for (int i = 0; i < $N; i++)", sizeField)
+                                .addStatement("rows.add(row(i))")
+                                .endControlFlow()
+                                .addStatement("return rows")
+                                .build());
+            } else {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        columnsName.simpleName() + " has no row(int) and toRows() because " + originalName
+                                + " cannot be created from its columns", type);
+            }
+
+            JavaFile file = JavaFile.builder(packageName, companion.build()).build();
+            elementStats.analysisNanos = System.nanoTime() - analysisStart;
+
+            writer.add(file, elementStats, columnsName.simpleName());
+        }
+        writer.flush();
+
+        if (roundEnv.processingOver()) {
+            SourceWriter.shutdown(processingEnv);
+            stats.report(processingEnv.getMessager());
+        }
+        return true;
+    }
+
+    /**
+     * row(index): creates the row at the given index from the columns, or returns null when the type has no
+     * creator or a creator value has no column.
+     */
+    private static MethodSpec buildRowMethod(TypeModel model,
+                                             Creator creator,
+                                             ClassName rowName,
+                                             Set<String> columns) {
+        if (creator == null) return null;
+        MethodSpec.Builder row = MethodSpec.methodBuilder("row")
+                .addModifiers(PUBLIC)
+                .returns(rowName)
+                .addParameter(int.class, "index");
+        if (creator.kind != Creator.Kind.SETTERS) {
+            List<CodeBlock> args = new ArrayList<>();
+            for (VariableElement p : creator.properties) {
+                String name = p.getSimpleName().toString();
+                if (!columns.contains(name)) return null;
+                args.add(CodeBlock.of("this.$N[index]", name));
+            }
+            return row.addStatement("return $L", creator.invocation(rowName, args)).build();
+        }
+        row.addStatement("$T row = new $T()", rowName, rowName);
+        for (String name : columns) {
+            String setterName = TypeModel.setterName(name);
+            VariableElement field = model.fields().get(name);
+            if (model.hasPublicMethod(setterName, 1)) {
+                row.addStatement("row.$N(this.$N[index])", setterName, name);
+            } else if (!field.getModifiers().contains(PRIVATE) && !field.getModifiers().contains(FINAL)) {
+                row.addStatement("row.$N = this.$N[index]", name, name);
+            } else {
+                row.addComment("No setter and field is not assignable: $N", name);
+            }
+        }
+        return row.addStatement("return row").build();
+    }
+
+    /**
+     * Reads a value with its getter, else directly from a non-private field; null when neither is possible.
+     */
+    private static CodeBlock reader(TypeModel model, String name, String var) {
+        VariableElement field = model.fields().get(name);
+        if (field == null) return null;
+        String getterName = TypeModel.getterName(field);
+        if (model.hasPublicMethod(getterName, 0)) {
+            return CodeBlock.of("$N.$N()", var, getterName);
+        }
+        if (!field.getModifiers().contains(PRIVATE)) {
+            return CodeBlock.of("$N.$N", var, name);
+        }
+        return null;
+    }
+
+    /**
+     * Name of the private row count field, kept distinct from the column names.
+     */
+    private static String sizeFieldName(Set<String> columns) {
+        String name = "size";
+        while (columns.contains(name)) {
+            name = "_" + name;
+        }
+        return name;
+    }
+}
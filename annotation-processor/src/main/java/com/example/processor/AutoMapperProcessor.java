@@ -1,22 +1,26 @@
 package com.example.processor;
 
+import com.example.annotations.AutoBuilder;
 import com.example.annotations.AutoMapper;
 import com.squareup.javapoet.*;
 
 import javax.annotation.processing.AbstractProcessor;
-import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
-import javax.annotation.processing.SupportedSourceVersion;
+import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
 import javax.lang.model.type.MirroredTypeException;
 import javax.lang.model.type.TypeMirror;
-import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
-import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import static javax.lang.model.element.Modifier.*;
 
@@ -24,23 +28,80 @@ import static javax.lang.model.element.Modifier.*;
  * Generates {FromSimpleName}To{TargetSimpleName}Mapper with:
  * - public static Target map(From from)
  * - public static From mapBack(Target target)
- * Fields are mapped by same name and assignment-compatible type.
+ * - public static Target mapInto(From from, Target target) / From mapBackInto(Target target, From from)
+ * - public static Target mapPatch(From from, Target target) / From mapBackPatch(Target target, From from), writing only
+ *   the fields selected by {@code patchStrategy} (non-null inputs by default, or values that changed)
+ * - public static List&lt;Target&gt; mapAll(Collection&lt;From&gt;) / Target[] mapAll(From[]) and the mapBackAll counterparts
+ * - with parallel = true: mapStream(Stream&lt;From&gt;) and fork-join based mapParallel(List&lt;From&gt;), plus mapBack counterparts
+ * - with view = true: view(From) returning a lazy {Target}View (see {@link MapperViewGenerator})
+ * - with metrics = true: the map, mapInto, mapPatch, mapAll and mapParallel methods and their mapBack counterparts
+ *   are instrumented (see {@link MetricsInstrumentation})
+ * Fields are mapped by same name. Values are converted by type (see {@link Conversions}): primitives widen without
+ * boxing and boxed values unbox null-safely. Nested objects, collections, arrays and map values whose types have
+ * their own @AutoMapper are converted with direct calls to that mapper (see {@link NestedMappings}); mappers that
+ * can meet a cycle of objects also get map(from, visited) / mapInto(from, target, visited) overloads (and the mapBack
+ * counterparts) tracking mapped instances in an IdentityHashMap. Other incompatible pairs are reported as errors.
  * Prefer getters/setters; else try direct field access (if not private).
+ * Once all mappers are generated, a MapperRegistry is generated for the module (see {@link MapperRegistryGenerator});
+ * its qualified name can be set with {@code -Aautogen.mapperRegistry}. When any @AutoMapper or @AutoBuilder enables
+ * metrics, the AutogenMetrics class is written at the same time (see {@link AutogenMetricsGenerator}); this processor
+ * also supports @AutoBuilder for that. Annotations are not claimed, since claiming only hides them from the
+ * processors after this one, and {@link AutoBuilderProcessor} must still see @AutoBuilder wherever it is registered.
+ * With {@code -Aautogen.fingerprints}, mappers whose types (including the mappers they call) are unchanged since the
+ * last build are not regenerated (see {@link Fingerprints}); a round's files are rendered in parallel when there are
+ * many (see {@link SourceWriter}).
+ * Registered with Gradle as an aggregating processor, since a mapper also depends on the 'from' type,
+ * which usually lives in another source file, the registry depends on every mapper and AutogenMetrics on every
+ * instrumented builder and mapper.
  */
-@SupportedAnnotationTypes("com.example.annotations.AutoMapper")
-@SupportedSourceVersion(SourceVersion.RELEASE_8)
+@SupportedAnnotationTypes({"com.example.annotations.AutoMapper", "com.example.annotations.AutoBuilder"})
+@SupportedOptions({ProcessorStats.OPTION, Fingerprints.OPTION, AutoMapperProcessor.REGISTRY_OPTION,
+        AutogenMetricsGenerator.CLASS_OPTION})
 public class AutoMapperProcessor extends AbstractProcessor {
 
+    static final String REGISTRY_OPTION = "autogen.mapperRegistry";
+
+    private static final List<String> INSTRUMENTED_METHODS = Arrays.asList(
+            "map", "mapInto", "mapPatch", "mapAll", "mapParallel",
+            "mapBack", "mapBackInto", "mapBackPatch", "mapBackAll", "mapBackParallel");
+
+    private final MapperRegistryGenerator registry = new MapperRegistryGenerator();
+    private final AutogenMetricsGenerator metrics = new AutogenMetricsGenerator();
+    private Conversions conversions;
+    private MapperViewGenerator viewGenerator;
+    private boolean registryWritten;
+    private boolean metricsWritten;
+
     @Override
-    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        Filer filer = processingEnv.getFiler();
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
 
-        for (Element element : roundEnv.getElementsAnnotatedWith(AutoMapper.class)) {
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        conversions = new Conversions(processingEnv.getTypeUtils());
+        viewGenerator = new MapperViewGenerator(conversions, processingEnv.getTypeUtils(), processingEnv.getMessager());
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeModelCache models = TypeModelCache.forRound(roundEnv);
+        ProcessorStats stats = ProcessorStats.of(processingEnv);
+        Fingerprints fingerprints = Fingerprints.of(processingEnv);
+        SourceWriter writer = new SourceWriter(processingEnv, stats);
+        boolean generated = false;
+        // Whether an instrumented class is (re)generated in this round, rather than kept up to date by fingerprints
+        boolean instrumentedGenerated = addInstrumentedBuilders(roundEnv);
+        Set<? extends Element> annotated = roundEnv.getElementsAnnotatedWith(AutoMapper.class);
+        NestedMappings nested = new NestedMappings(processingEnv.getTypeUtils(), processingEnv.getElementUtils(),
+                conversions, models);
+
+        for (Element element : annotated) {
             if (!(element instanceof TypeElement)) continue;
             TypeElement targetType = (TypeElement) element;
-
             AutoMapper ann = targetType.getAnnotation(AutoMapper.class);
-            TypeElement fromType = getFromTypeElement(ann);
+            TypeElement fromType = getFromTypeElement(ann, processingEnv.getTypeUtils());
 
             if (fromType == null) {
                 processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
@@ -54,155 +115,634 @@ public class AutoMapperProcessor extends AbstractProcessor {
             String fromSimple = fromType.getSimpleName().toString();
             String targetSimple = targetType.getSimpleName().toString();
             String mapperName = fromSimple + "To" + targetSimple + "Mapper";
+            ClassName mapperClass = ClassName.get(packageName, mapperName);
+            String viewName = ann.view()
+                    ? ClassName.get(packageName, MapperViewGenerator.viewName(targetType)).canonicalName()
+                    : null;
+            if (ann.metrics()) {
+                metrics.add(targetType, mapperClass);
+            }
 
-            Map<String, VariableElement> fromFields = ElementFilter.fieldsIn(fromType.getEnclosedElements())
-                    .stream().filter(f -> !f.getModifiers().contains(STATIC))
-                    .collect(Collectors.toMap(f -> f.getSimpleName().toString(), f -> f, (a, b) -> a, LinkedHashMap::new));
-            Map<String, VariableElement> targetFields = ElementFilter.fieldsIn(targetType.getEnclosedElements())
-                    .stream().filter(f -> !f.getModifiers().contains(STATIC))
-                    .collect(Collectors.toMap(f -> f.getSimpleName().toString(), f -> f, (a, b) -> a, LinkedHashMap::new));
+            // An up to date mapper is still analyzed, so its diagnostics and stats are reported again, but not
+            // rendered or written
+            String fingerprint = fingerprints.compute("AutoMapperProcessor", nested.reachableTypes(targetType));
+            boolean reused = fingerprints.isCurrent(mapperClass.canonicalName(), fingerprint)
+                    && (viewName == null || fingerprints.isCurrent(viewName, fingerprint));
+
+            long analysisStart = System.nanoTime();
+            ProcessorStats.ElementStats elementStats =
+                    new ProcessorStats.ElementStats("AutoMapperProcessor", targetType.getQualifiedName().toString());
+
+            TypeModel fromModel = models.get(fromType);
+            TypeModel targetModel = models.get(targetType);
+            elementStats.fields = targetModel.fields().size();
+
+            // Container conversions through other mappers add convert{Field} / convertBack{Field} helpers
+            List<MethodSpec> helpers = new ArrayList<>();
+            List<FieldMapping> toTarget = resolveMappings(fromModel, targetModel, targetType, nested, mapperClass,
+                    "convert", helpers, elementStats);
+            List<FieldMapping> toFrom = resolveMappings(targetModel, fromModel, targetType, nested, mapperClass,
+                    "convertBack", helpers, elementStats);
+            boolean cyclic = nested.isCyclic(targetType);
+            // With metrics, generated methods delegate to the uninstrumented bodies, so each call is counted once
+            UnaryOperator<String> call = ann.metrics() ? MetricsInstrumentation::bodyName : UnaryOperator.identity();
+
+            // Build mapInto(from, target) / map(from), tracking mapped instances when the mapper can meet cycles
+            List<MethodSpec> mapMethods = buildMapMethods("map", "mapInto", call.apply("mapInto"),
+                    fromType, "from", targetType, "target", toTarget, cyclic);
+
+            // Build mapBackInto(target, from) / mapBack(target)
+            List<MethodSpec> mapBackMethods = buildMapMethods("mapBack", "mapBackInto", call.apply("mapBackInto"),
+                    targetType, "target", fromType, "from", toFrom, cyclic);
+
+            // Build mapPatch(from, target) / mapBackPatch(target, from)
+            AutoMapper.PatchStrategy patchStrategy = ann.patchStrategy();
+            MethodSpec mapPatch = buildPatchMethod("mapPatch", fromType, "from", targetType, "target",
+                    toTarget, patchStrategy);
+            MethodSpec mapBackPatch = buildPatchMethod("mapBackPatch", targetType, "target", fromType, "from",
+                    toFrom, patchStrategy);
+
+            TypeSpec.Builder mapper = TypeSpec.classBuilder(mapperName)
+                    .addOriginatingElement(targetType)
+                    .addOriginatingElement(fromType)
+                    .addModifiers(PUBLIC, FINAL)
+                    .addMethods(mapMethods)
+                    .addMethod(mapPatch)
+                    .addMethod(buildCollectionMethod("mapAll", call.apply("map"), fromType, targetType))
+                    .addMethod(buildArrayMethod("mapAll", call.apply("map"), fromType, targetType))
+                    .addMethods(mapBackMethods)
+                    .addMethod(mapBackPatch)
+                    .addMethod(buildCollectionMethod("mapBackAll", call.apply("mapBack"), targetType, fromType))
+                    .addMethod(buildArrayMethod("mapBackAll", call.apply("mapBack"), targetType, fromType))
+                    .addMethods(helpers);
+
+            if (ann.parallel()) {
+                if (ann.parallelThreshold() < 1) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "parallelThreshold must be at least 1 for @AutoMapper on " + targetType.getQualifiedName(), targetType);
+                    continue;
+                }
+                mapper.addField(FieldSpec.builder(int.class, "PARALLEL_THRESHOLD", PRIVATE, STATIC, FINAL)
+                                .initializer("$L", ann.parallelThreshold())
+                                .build())
+                        .addMethod(buildStreamMethod("mapStream", "map", mapperClass, fromType, targetType))
+                        .addMethod(buildParallelMethod("mapParallel", "MapTask", call.apply("map"), fromType, targetType))
+                        .addType(buildParallelTask("MapTask", call.apply("map"), fromType, targetType))
+                        .addMethod(buildStreamMethod("mapBackStream", "mapBack", mapperClass, targetType, fromType))
+                        .addMethod(buildParallelMethod("mapBackParallel", "MapBackTask", call.apply("mapBack"),
+                                targetType, fromType))
+                        .addType(buildParallelTask("MapBackTask", call.apply("mapBack"), targetType, fromType));
+            }
 
-            List<ExecutableElement> fromMethods = ElementFilter.methodsIn(fromType.getEnclosedElements());
-            List<ExecutableElement> targetMethods = ElementFilter.methodsIn(targetType.getEnclosedElements());
+            TypeSpec view = null;
+            if (ann.view()) {
+                view = viewGenerator.generate(fromModel, targetModel, toTarget, mapperClass);
+                if (view != null) {
+                    ClassName viewClass = ClassName.get(packageName, view.name);
+                    mapper.addMethod(MethodSpec.methodBuilder("view")
+                            .addModifiers(PUBLIC, STATIC)
+                            .returns(viewClass)
+                            .addParameter(ClassName.get(fromType), "from")
+                            .addStatement("return new $T(from)", viewClass)
+                            .build());
+                }
+            }
 
-            // Build map(from)
-            MethodSpec map = buildMapMethod(fromType, targetType, fromFields, targetFields, fromMethods, targetMethods);
+            if (ann.metrics()) {
+                MetricsInstrumentation.instrument(mapper, mapperClass, INSTRUMENTED_METHODS);
+            }
 
-            // Build mapBack(target)
-            MethodSpec mapBack = buildMapBackMethod(fromType, targetType, fromFields, targetFields, fromMethods, targetMethods);
+            JavaFile file = JavaFile.builder(packageName, mapper.build()).build();
+            elementStats.analysisNanos = System.nanoTime() - analysisStart;
 
-            TypeSpec mapper = TypeSpec.classBuilder(mapperName)
-                    .addModifiers(PUBLIC, FINAL)
-                    .addMethod(map)
-                    .addMethod(mapBack)
-                    .build();
+            if (reused) {
+                writer.reuse(file, elementStats);
+            } else {
+                generated = true;
+                instrumentedGenerated |= ann.metrics();
+                writer.add(file, elementStats, "mapper " + mapperName);
+                fingerprints.record(mapperClass.canonicalName(), fingerprint);
+            }
+            if (view != null) {
+                ProcessorStats.ElementStats viewStats =
+                        new ProcessorStats.ElementStats("AutoMapperProcessor", elementStats.element);
+                viewStats.fields = elementStats.fields;
+                JavaFile viewFile = JavaFile.builder(packageName, view).build();
+                if (reused) {
+                    writer.reuse(viewFile, viewStats);
+                } else {
+                    writer.add(viewFile, viewStats, "mapper view " + view.name);
+                    fingerprints.record(viewName, fingerprint);
+                }
+            }
+
+            register(fromType, targetType, mapperClass);
+        }
 
-            try {
-                JavaFile.builder(packageName, mapper).build().writeTo(filer);
-            } catch (IOException e) {
+        // The registry is written in the first round without new mappers (normally the round after they were
+        // generated, or this round when every mapper was up to date), so it is still compiled as a regular source
+        // rather than produced in the last round.
+        if (!registryWritten && !registry.isEmpty() && (!generated || roundEnv.processingOver())) {
+            registryWritten = true;
+            addRegistry(writer);
+        }
+        if (!metricsWritten && !metrics.isEmpty() && (!instrumentedGenerated || roundEnv.processingOver())) {
+            metricsWritten = true;
+            addMetrics(writer);
+        }
+        writer.flush();
+
+        if (roundEnv.processingOver()) {
+            SourceWriter.shutdown(processingEnv);
+            stats.report(processingEnv.getMessager());
+            fingerprints.save(processingEnv.getMessager());
+        }
+        // Not claimed: see the class comment
+        return false;
+    }
+
+    /**
+     * Registers the round's builders with metrics; returns whether any of them is generated in this round.
+     */
+    private boolean addInstrumentedBuilders(RoundEnvironment roundEnv) {
+        Fingerprints fingerprints = Fingerprints.of(processingEnv);
+        boolean generated = false;
+        for (Element element : roundEnv.getElementsAnnotatedWith(AutoBuilder.class)) {
+            TypeElement type;
+            ExecutableElement creator = null;
+            if (element instanceof TypeElement) {
+                type = (TypeElement) element;
+            } else if (element instanceof ExecutableElement) {
+                creator = (ExecutableElement) element;
+                type = (TypeElement) element.getEnclosingElement();
+            } else {
+                continue;
+            }
+            if (AutoBuilderProcessor.option(type, creator, AutoBuilder::metrics)) {
+                PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+                ClassName builder = ClassName.get(pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString(),
+                        type.getSimpleName() + "Builder");
+                metrics.add(type, builder);
+                generated |= !fingerprints.isReused(builder.canonicalName());
+            }
+        }
+        return generated;
+    }
+
+    /**
+     * Resolves the same-named fields copied from {@code in} to {@code out}: accessors, value types and the
+     * conversion between them, through other generated mappers first. Container conversions add a helper named
+     * {@code helperPrefix} + field name to {@code helpers}. Incompatible types are reported as errors on the
+     * annotated type's field.
+     */
+    private List<FieldMapping> resolveMappings(TypeModel in,
+                                               TypeModel out,
+                                               TypeElement annotated,
+                                               NestedMappings nested,
+                                               ClassName mapperClass,
+                                               String helperPrefix,
+                                               List<MethodSpec> helpers,
+                                               ProcessorStats.ElementStats elementStats) {
+        List<FieldMapping> mappings = new ArrayList<>();
+        for (Map.Entry<String, VariableElement> e : out.fields().entrySet()) {
+            String name = e.getKey();
+            VariableElement outField = e.getValue();
+            VariableElement inField = in.fields().get(name);
+            if (inField == null) continue;
+
+            // Resolve getter on input or direct field
+            String getterName = TypeModel.getterName(inField);
+            Optional<ExecutableElement> getter = in.findPublicMethod(getterName, 0);
+
+            // Resolve setter on output or direct field
+            String setterName = TypeModel.setterName(name);
+            Optional<ExecutableElement> setter = out.findPublicMethod(setterName, 1);
+
+            boolean readable = getter.isPresent() || !inField.getModifiers().contains(PRIVATE);
+            boolean writable = setter.isPresent()
+                    || !(outField.getModifiers().contains(PRIVATE) || outField.getModifiers().contains(FINAL));
+            if (!readable || !writable) {
+                mappings.add(FieldMapping.skipped(name, "access restrictions or missing accessors"));
+                elementStats.skippedFields++;
+                continue;
+            }
+
+            TypeMirror sourceType = getter.map(ExecutableElement::getReturnType).orElse(inField.asType());
+            TypeMirror targetType = setter.map(s -> s.getParameters().get(0).asType()).orElse(outField.asType());
+            Conversions.Conversion conversion = nested.find(sourceType, targetType, annotated, mapperClass,
+                    helperPrefix + TypeModel.capitalize(name), helpers);
+            if (conversion == null) {
+                conversion = conversions.find(sourceType, targetType);
+            }
+            if (conversion == null) {
                 processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
-                        "Failed to write mapper " + mapperName + ": " + e.getMessage());
+                        "Incompatible types for field '" + name + "': " + sourceType + " in "
+                                + in.type().getSimpleName() + " cannot be mapped to " + targetType + " in "
+                                + out.type().getSimpleName(),
+                        outField.getEnclosingElement() == annotated ? outField : inField);
+                mappings.add(FieldMapping.skipped(name, "incompatible types"));
+                elementStats.skippedFields++;
+                continue;
             }
+
+            // The output's current value, compared against by CHANGED patches
+            String currentGetterName = TypeModel.getterName(outField);
+            Optional<ExecutableElement> currentGetter = out.findPublicMethod(currentGetterName, 0);
+            TypeMirror currentType = currentGetter.map(ExecutableElement::getReturnType)
+                    .orElse(outField.getModifiers().contains(PRIVATE) ? null : outField.asType());
+
+            mappings.add(FieldMapping.of(name,
+                    getter.isPresent() ? getterName : null,
+                    setter.isPresent() ? setterName : null,
+                    sourceType, targetType, conversion,
+                    currentGetter.isPresent() ? currentGetterName : null, currentType));
         }
+        return mappings;
+    }
 
-        return true;
+    /**
+     * Builds map / mapInto or the mapBack counterparts. Mappers that can meet a cycle of objects map through
+     * overloads taking the instances mapped so far, and the plain entry points start with an empty identity map.
+     * Otherwise map calls {@code intoCall}: mapInto, or its uninstrumented body when metrics are on.
+     */
+    private List<MethodSpec> buildMapMethods(String name,
+                                             String intoName,
+                                             String intoCall,
+                                             TypeElement inType,
+                                             String inVar,
+                                             TypeElement outType,
+                                             String outVar,
+                                             List<FieldMapping> mappings,
+                                             boolean cyclic) {
+        MethodSpec into = buildIntoMethod(intoName, inType, inVar, outType, outVar, mappings, cyclic);
+        if (!cyclic) {
+            return Arrays.asList(buildDelegatingMethod(name, intoCall, inType, outType, inVar), into);
+        }
+        ClassName inClass = ClassName.get(inType);
+        ClassName outClass = ClassName.get(outType);
+        MethodSpec map = MethodSpec.methodBuilder(name)
+                .addModifiers(PUBLIC, STATIC)
+                .returns(outClass)
+                .addParameter(inClass, inVar)
+                .addStatement("return $N($N, new $T<>())", name, inVar, IdentityHashMap.class)
+                .build();
+        MethodSpec mapVisited = MethodSpec.methodBuilder(name)
+                .addJavadoc("Maps $N, or returns the instance it was already mapped to within {@code visited}.\n", inVar)
+                .addModifiers(PUBLIC, STATIC)
+                .returns(outClass)
+                .addParameter(inClass, inVar)
+                .addParameter(NestedMappings.VISITED, "visited")
+                .beginControlFlow("if ($N == null)", inVar)
+                .addStatement("return null")
+                .endControlFlow()
+                .addStatement("$T mapped = visited.get($N)", Object.class, inVar)
+                .beginControlFlow("if (mapped instanceof $T)", outClass)
+                .addStatement("return ($T) mapped", outClass)
+                .endControlFlow()
+                .addStatement("return $N($N, new $T(), visited)", intoName, inVar, outClass)
+                .build();
+        MethodSpec mapInto = MethodSpec.methodBuilder(intoName)
+                .addModifiers(PUBLIC, STATIC)
+                .returns(outClass)
+                .addParameter(inClass, inVar)
+                .addParameter(outClass, outVar)
+                .addStatement("return $N($N, $N, new $T<>())", intoName, inVar, outVar, IdentityHashMap.class)
+                .build();
+        return Arrays.asList(map, mapVisited, mapInto, into);
     }
 
-    private MethodSpec buildMapMethod(TypeElement fromType,
-                                      TypeElement targetType,
-                                      Map<String, VariableElement> fromFields,
-                                      Map<String, VariableElement> targetFields,
-                                      List<ExecutableElement> fromMethods,
-                                      List<ExecutableElement> targetMethods) {
+    /**
+     * Builds mapInto / mapBackInto: copies every resolved field from the input onto the given output instance.
+     * With {@code visited}, the output is registered as the input's mapping first, so cycles back to the input
+     * resolve to it.
+     */
+    private MethodSpec buildIntoMethod(String name,
+                                       TypeElement inType,
+                                       String inVar,
+                                       TypeElement outType,
+                                       String outVar,
+                                       List<FieldMapping> mappings,
+                                       boolean visited) {
+        MethodSpec.Builder m = MethodSpec.methodBuilder(name)
+                .addModifiers(PUBLIC, STATIC)
+                .returns(ClassName.get(outType))
+                .addParameter(ClassName.get(inType), inVar)
+                .addParameter(ClassName.get(outType), outVar);
+        if (visited) {
+            m.addParameter(NestedMappings.VISITED, "visited")
+                    .addStatement("visited.put($N, $N)", inVar, outVar);
+        }
+
+        for (FieldMapping f : mappings) {
+            if (f.isSkipped()) {
+                m.addComment("Skipped mapping for $N due to $L", f.name, f.skipReason);
+                continue;
+            }
+            CodeBlock value = f.read(inVar);
+            if (f.conversion.readsTwice()) {
+                m.addStatement("$T $N = $L", f.sourceType, f.local(), value);
+                value = CodeBlock.of("$N", f.local());
+            }
+            m.addStatement("$L", f.write(outVar, f.conversion.apply(value)));
+        }
 
-        ClassName fromClass = ClassName.get(fromType);
-        ClassName targetClass = ClassName.get(targetType);
+        return m.addStatement("return $N", outVar).build();
+    }
 
-        MethodSpec.Builder m = MethodSpec.methodBuilder("map")
+    /**
+     * Builds mapPatch / mapBackPatch: like mapInto, but only writes the fields selected by the patch strategy.
+     * NON_NULL skips null references in the input; CHANGED skips values equal to the output's current value
+     * ({@code ==} for primitives, {@link Objects#equals} otherwise).
+     */
+    private MethodSpec buildPatchMethod(String name,
+                                        TypeElement inType,
+                                        String inVar,
+                                        TypeElement outType,
+                                        String outVar,
+                                        List<FieldMapping> mappings,
+                                        AutoMapper.PatchStrategy strategy) {
+        MethodSpec.Builder m = MethodSpec.methodBuilder(name)
                 .addModifiers(PUBLIC, STATIC)
-                .returns(targetClass)
-                .addParameter(fromClass, "from");
+                .returns(ClassName.get(outType))
+                .addParameter(ClassName.get(inType), inVar)
+                .addParameter(ClassName.get(outType), outVar);
+        if (mappings.stream().anyMatch(f -> !f.isSkipped() && f.conversion.threadsVisited())) {
+            m.addStatement("$T visited = new $T<>()", NestedMappings.VISITED, IdentityHashMap.class)
+                    .addStatement("visited.put($N, $N)", inVar, outVar);
+        }
 
-        m.addStatement("$T target = new $T()", targetClass, targetClass);
+        for (FieldMapping f : mappings) {
+            if (f.isSkipped()) {
+                m.addComment("Skipped mapping for $N due to $L", f.name, f.skipReason);
+                continue;
+            }
+            if (strategy == AutoMapper.PatchStrategy.NON_NULL) {
+                if (f.sourceType.getKind().isPrimitive()) {
+                    m.addStatement("$L", f.write(outVar, f.conversion.apply(f.read(inVar))));
+                } else {
+                    m.addStatement("$T $N = $L", f.sourceType, f.local(), f.read(inVar))
+                            .beginControlFlow("if ($N != null)", f.local())
+                            .addStatement("$L", f.write(outVar, f.conversion.apply(CodeBlock.of("$N", f.local()))))
+                            .endControlFlow();
+                }
+                continue;
+            }
 
-        for (Map.Entry<String, VariableElement> e : targetFields.entrySet()) {
-            String name = e.getKey();
-            VariableElement targetField = e.getValue();
-            VariableElement fromField = fromFields.get(name);
-            if (fromField == null) continue;
-
-            // Resolve getter on source or direct field
-            String getterName = resolveGetterName(fromField);
-            boolean hasGetter = hasMethod(fromMethods, getterName, 0);
-
-            // Resolve setter on target or direct field
-            String setterName = "set" + capitalize(name);
-            boolean hasSetter = hasMethod(targetMethods, setterName, 1);
-
-            if (hasGetter && hasSetter) {
-                m.addStatement("target.$N(from.$N())", setterName, getterName);
-            } else if (hasGetter && !targetField.getModifiers().contains(PRIVATE)) {
-                m.addStatement("target.$N = from.$N()", name, getterName);
-            } else if (!fromField.getModifiers().contains(PRIVATE) && hasSetter) {
-                m.addStatement("target.$N(from.$N)", setterName, name);
-            } else if (!fromField.getModifiers().contains(PRIVATE) && !targetField.getModifiers().contains(PRIVATE)) {
-                m.addStatement("target.$N = from.$N", name, name);
+            CodeBlock value = f.read(inVar);
+            if (f.conversion.readsTwice()) {
+                m.addStatement("$T $N = $L", f.sourceType, f.local(), value);
+                value = CodeBlock.of("$N", f.local());
+            }
+            CodeBlock current = f.readCurrent(outVar);
+            if (current == null) {
+                m.addStatement("$L", f.write(outVar, f.conversion.apply(value)));
+                continue;
+            }
+            String patched = f.name + "Patched";
+            m.addStatement("$T $N = $L", f.targetType, patched, f.conversion.apply(value));
+            if (f.targetType.getKind().isPrimitive() && f.currentType.getKind().isPrimitive()) {
+                m.beginControlFlow("if ($N != $L)", patched, current);
             } else {
-                m.addComment("Skipped mapping for $N due to access restrictions or missing accessors", name);
+                m.beginControlFlow("if (!$T.equals($N, $L))", Objects.class, patched, current);
             }
+            m.addStatement("$L", f.write(outVar, CodeBlock.of("$N", patched))).endControlFlow();
         }
 
-        return m.addStatement("return target").build();
+        return m.addStatement("return $N", outVar).build();
     }
 
-    private MethodSpec buildMapBackMethod(TypeElement fromType,
-                                          TypeElement targetType,
-                                          Map<String, VariableElement> fromFields,
-                                          Map<String, VariableElement> targetFields,
-                                          List<ExecutableElement> fromMethods,
-                                          List<ExecutableElement> targetMethods) {
+    /**
+     * Adds a mapper to the registry, when both of its types can be referenced from any package.
+     */
+    private void register(TypeElement fromType, TypeElement targetType, ClassName mapperClass) {
+        if (isAccessible(fromType) && isAccessible(targetType)) {
+            registry.add(fromType, targetType,
+                    processingEnv.getElementUtils().getBinaryName(fromType).toString(),
+                    processingEnv.getElementUtils().getBinaryName(targetType).toString(),
+                    mapperClass);
+        } else {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    mapperClass.simpleName() + " is not added to the mapper registry because "
+                            + fromType.getSimpleName() + " or " + targetType.getSimpleName() + " is not public.",
+                    targetType);
+        }
+    }
 
-        ClassName fromClass = ClassName.get(fromType);
-        ClassName targetClass = ClassName.get(targetType);
+    private void addRegistry(SourceWriter writer) {
+        long analysisStart = System.nanoTime();
+        ClassName name = configuredName(REGISTRY_OPTION, registry.defaultPackage(), MapperRegistryGenerator.SIMPLE_NAME);
+        ProcessorStats.ElementStats elementStats = new ProcessorStats.ElementStats("AutoMapperProcessor", name.simpleName());
+        JavaFile file = registry.generate(name.packageName(), name.simpleName());
+        elementStats.analysisNanos = System.nanoTime() - analysisStart;
+        writer.add(file, elementStats, "mapper registry " + name.simpleName());
+    }
 
-        MethodSpec.Builder m = MethodSpec.methodBuilder("mapBack")
-                .addModifiers(PUBLIC, STATIC)
-                .returns(fromClass)
-                .addParameter(targetClass, "target");
+    private void addMetrics(SourceWriter writer) {
+        long analysisStart = System.nanoTime();
+        ClassName name = configuredName(AutogenMetricsGenerator.CLASS_OPTION, metrics.defaultPackage(),
+                AutogenMetricsGenerator.SIMPLE_NAME);
+        ProcessorStats.ElementStats elementStats = new ProcessorStats.ElementStats("AutoMapperProcessor", name.simpleName());
+        JavaFile file = metrics.generate(name.packageName(), name.simpleName());
+        elementStats.analysisNanos = System.nanoTime() - analysisStart;
+        writer.add(file, elementStats, "metrics class " + name.simpleName());
+    }
 
-        m.addStatement("$T from = new $T()", fromClass, fromClass);
+    /**
+     * The qualified class name given by a processor option, else {@code simpleName} in {@code defaultPackage}.
+     */
+    private ClassName configuredName(String option, String defaultPackage, String simpleName) {
+        String qualifiedName = processingEnv.getOptions().get(option);
+        if (qualifiedName == null || qualifiedName.isEmpty()) {
+            return ClassName.get(defaultPackage, simpleName);
+        }
+        int dot = qualifiedName.lastIndexOf('.');
+        return ClassName.get(dot < 0 ? "" : qualifiedName.substring(0, dot), qualifiedName.substring(dot + 1));
+    }
 
-        for (Map.Entry<String, VariableElement> e : fromFields.entrySet()) {
-            String name = e.getKey();
-            VariableElement fromField = e.getValue();
-            VariableElement targetField = targetFields.get(name);
-            if (targetField == null) continue;
-
-            // Resolve getter on target or direct field
-            String getterName = resolveGetterName(targetField);
-            boolean hasGetter = hasMethod(targetMethods, getterName, 0);
-
-            // Resolve setter on source or direct field
-            String setterName = "set" + capitalize(name);
-            boolean hasSetter = hasMethod(fromMethods, setterName, 1);
-
-            if (hasGetter && hasSetter) {
-                m.addStatement("from.$N(target.$N())", setterName, getterName);
-            } else if (hasGetter && !fromField.getModifiers().contains(PRIVATE)) {
-                m.addStatement("from.$N = target.$N()", name, getterName);
-            } else if (!targetField.getModifiers().contains(PRIVATE) && hasSetter) {
-                m.addStatement("from.$N(target.$N)", setterName, name);
-            } else if (!targetField.getModifiers().contains(PRIVATE) && !fromField.getModifiers().contains(PRIVATE)) {
-                m.addStatement("from.$N = target.$N", name, name);
-            } else {
-                m.addComment("Skipped mapping for $N due to access restrictions or missing accessors", name);
-            }
+    /**
+     * Whether the type (and every type enclosing it) is public, so the registry can reference it from any package.
+     */
+    private static boolean isAccessible(TypeElement type) {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (!e.getModifiers().contains(PUBLIC)) return false;
         }
+        return true;
+    }
 
-        return m.addStatement("return from").build();
+    /**
+     * Single-object entry point: allocates a fresh result and fills it through the given *Into method.
+     */
+    private MethodSpec buildDelegatingMethod(String name,
+                                             String intoName,
+                                             TypeElement inType,
+                                             TypeElement outType,
+                                             String paramName) {
+        ClassName inClass = ClassName.get(inType);
+        ClassName outClass = ClassName.get(outType);
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(PUBLIC, STATIC)
+                .returns(outClass)
+                .addParameter(inClass, paramName)
+                .addStatement("return $N($N, new $T())", intoName, paramName, outClass)
+                .build();
     }
 
-    private boolean hasMethod(List<ExecutableElement> methods, String name, int paramCount) {
-        return methods.stream()
-                .anyMatch(m -> m.getSimpleName().contentEquals(name)
-                        && m.getParameters().size() == paramCount
-                        && m.getModifiers().contains(PUBLIC));
+    /**
+     * Bulk mapping of a collection into a list pre-sized to the collection's size.
+     */
+    private MethodSpec buildCollectionMethod(String name,
+                                             String elementMethod,
+                                             TypeElement inType,
+                                             TypeElement outType) {
+        ClassName inClass = ClassName.get(inType);
+        ClassName outClass = ClassName.get(outType);
+        TypeName inCollection = ParameterizedTypeName.get(ClassName.get(Collection.class), WildcardTypeName.subtypeOf(inClass));
+        TypeName outList = ParameterizedTypeName.get(ClassName.get(List.class), outClass);
+
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(PUBLIC, STATIC)
+                .returns(outList)
+                .addParameter(inCollection, "sources")
+                .addStatement("$T result = new $T<>(sources.size())", outList, ArrayList.class)
+                .beginControlFlow("for ($T source : sources)", inClass)
+                .addStatement("result.add($N(source))", elementMethod)
+                .endControlFlow()
+                .addStatement("return result")
+                .build();
     }
 
-    private String resolveGetterName(VariableElement field) {
-        String fname = field.getSimpleName().toString();
-        String cap = capitalize(fname);
-        if (field.asType().toString().equals("boolean")) {
-            return "is" + cap;
-        }
-        return "get" + cap;
+    /**
+     * Bulk mapping of an array into an array of the same length.
+     */
+    private MethodSpec buildArrayMethod(String name,
+                                        String elementMethod,
+                                        TypeElement inType,
+                                        TypeElement outType) {
+        ArrayTypeName inArray = ArrayTypeName.of(ClassName.get(inType));
+        ArrayTypeName outArray = ArrayTypeName.of(ClassName.get(outType));
+
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(PUBLIC, STATIC)
+                .returns(outArray)
+                .addParameter(inArray, "sources")
+                .addStatement("$T result = new $T[sources.length]", outArray, ClassName.get(outType))
+                .beginControlFlow("for (int i = 0; i < sources.length; i++)")
+                .addStatement("result[i] = $N(sources[i])", elementMethod)
+                .endControlFlow()
+                .addStatement("return result")
+                .build();
+    }
+
+    /**
+     * Lazy mapping of a stream; parallelism follows the given stream.
+     */
+    private MethodSpec buildStreamMethod(String name,
+                                         String elementMethod,
+                                         ClassName mapperClass,
+                                         TypeElement inType,
+                                         TypeElement outType) {
+        TypeName inStream = ParameterizedTypeName.get(ClassName.get(Stream.class), WildcardTypeName.subtypeOf(ClassName.get(inType)));
+        TypeName outStream = ParameterizedTypeName.get(ClassName.get(Stream.class), ClassName.get(outType));
+
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(PUBLIC, STATIC)
+                .returns(outStream)
+                .addParameter(inStream, "sources")
+                .addStatement("return sources.map($T::$N)", mapperClass, elementMethod)
+                .build();
+    }
+
+    /**
+     * Maps a list into a pre-allocated array on the common fork-join pool. Small lists and lists whose
+     * spliterator cannot report exact split sizes are mapped sequentially.
+     */
+    private MethodSpec buildParallelMethod(String name,
+                                           String taskName,
+                                           String elementMethod,
+                                           TypeElement inType,
+                                           TypeElement outType) {
+        ClassName inClass = ClassName.get(inType);
+        ClassName outClass = ClassName.get(outType);
+        TypeName inList = ParameterizedTypeName.get(ClassName.get(List.class), WildcardTypeName.subtypeOf(inClass));
+        TypeName inSpliterator = ParameterizedTypeName.get(ClassName.get(Spliterator.class), WildcardTypeName.subtypeOf(inClass));
+
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(PUBLIC, STATIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), outClass))
+                .addParameter(inList, "sources")
+                .addStatement("$T[] result = new $T[sources.size()]", outClass, outClass)
+                .addStatement("$T spliterator = sources.spliterator()", inSpliterator)
+                .beginControlFlow("if (result.length <= PARALLEL_THRESHOLD || !spliterator.hasCharacteristics($T.SUBSIZED))",
+                        Spliterator.class)
+                .addStatement("int i = 0")
+                .beginControlFlow("for ($T source : sources)", inClass)
+                .addStatement("result[i++] = $N(source)", elementMethod)
+                .endControlFlow()
+                .nextControlFlow("else")
+                .addStatement("$T.commonPool().invoke(new $N(spliterator, result, 0))", ForkJoinPool.class, taskName)
+                .endControlFlow()
+                .addStatement("return $T.asList(result)", Arrays.class)
+                .build();
     }
 
-    private static String capitalize(String s) {
-        return (s == null || s.isEmpty()) ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    /**
+     * Fork-join task that splits by spliterator until PARALLEL_THRESHOLD and writes each element at its index.
+     */
+    private TypeSpec buildParallelTask(String taskName,
+                                       String elementMethod,
+                                       TypeElement inType,
+                                       TypeElement outType) {
+        ClassName inClass = ClassName.get(inType);
+        ClassName outClass = ClassName.get(outType);
+        TypeName inSpliterator = ParameterizedTypeName.get(ClassName.get(Spliterator.class), WildcardTypeName.subtypeOf(inClass));
+
+        MethodSpec ctor = MethodSpec.constructorBuilder()
+                .addParameter(inSpliterator, "sources")
+                .addParameter(ArrayTypeName.of(outClass), "result")
+                .addParameter(int.class, "index")
+                .addStatement("this.sources = sources")
+                .addStatement("this.result = result")
+                .addStatement("this.index = index")
+                .build();
+
+        MethodSpec compute = MethodSpec.methodBuilder("compute")
+                .addAnnotation(Override.class)
+                .addModifiers(PROTECTED)
+                .beginControlFlow("if (sources.estimateSize() > PARALLEL_THRESHOLD)")
+                .addStatement("$T prefix = sources.trySplit()", inSpliterator)
+                .beginControlFlow("if (prefix != null)")
+                .addStatement("int prefixSize = (int) prefix.getExactSizeIfKnown()")
+                .addStatement("invokeAll(new $N(prefix, result, index), new $N(sources, result, index + prefixSize))",
+                        taskName, taskName)
+                .addStatement("return")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("sources.forEachRemaining(this)")
+                .build();
+
+        MethodSpec accept = MethodSpec.methodBuilder("accept")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .addParameter(inClass, "source")
+                .addStatement("result[index++] = $N(source)", elementMethod)
+                .build();
+
+        // RecursiveAction is Serializable, but the tasks only live for one mapParallel call
+        return TypeSpec.classBuilder(taskName)
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "serial").build())
+                .addModifiers(PRIVATE, STATIC, FINAL)
+                .superclass(RecursiveAction.class)
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(Consumer.class), inClass))
+                .addField(inSpliterator, "sources", PRIVATE, FINAL)
+                .addField(ArrayTypeName.of(outClass), "result", PRIVATE, FINAL)
+                .addField(int.class, "index", PRIVATE)
+                .addMethod(ctor)
+                .addMethod(compute)
+                .addMethod(accept)
+                .build();
     }
 
-    private TypeElement getFromTypeElement(AutoMapper ann) {
+    static TypeElement getFromTypeElement(AutoMapper ann, Types types) {
         if (ann == null) return null;
         try {
             ann.from(); // This will throw at compile time
@@ -210,7 +750,7 @@ public class AutoMapperProcessor extends AbstractProcessor {
         } catch (MirroredTypeException mte) {
             TypeMirror tm = mte.getTypeMirror();
             if (tm == null) return null;
-            Element e = processingEnv.getTypeUtils().asElement(tm);
+            Element e = types.asElement(tm);
             if (e instanceof TypeElement) {
                 return (TypeElement) e;
             }
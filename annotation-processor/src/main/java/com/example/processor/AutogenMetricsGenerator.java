@@ -0,0 +1,73 @@
+package com.example.processor;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.TypeElement;
+import java.util.*;
+
+import static javax.lang.model.element.Modifier.*;
+
+/**
+ * Generates the per-module AutogenMetrics class when any @AutoBuilder or @AutoMapper has {@code metrics = true}:
+ * - public static List&lt;MethodMetrics.Snapshot&gt; snapshot(), the counters of every instrumented builder and mapper
+ * Written by {@link AutoMapperProcessor} next to the mapper registry, in the longest common package of the
+ * instrumented classes unless {@code -Aautogen.metricsClass} names it.
+ */
+final class AutogenMetricsGenerator {
+
+    static final String CLASS_OPTION = "autogen.metricsClass";
+    static final String SIMPLE_NAME = "AutogenMetrics";
+
+    /** Instrumented generated classes by canonical name, sorted so the output does not depend on round order. */
+    private final SortedMap<String, ClassName> instrumented = new TreeMap<>();
+    private final Set<TypeElement> originatingElements = new LinkedHashSet<>();
+
+    boolean isEmpty() {
+        return instrumented.isEmpty();
+    }
+
+    /**
+     * Registers the instrumented class generated for an annotated type.
+     */
+    void add(TypeElement annotated, ClassName generated) {
+        instrumented.put(generated.canonicalName(), generated);
+        originatingElements.add(annotated);
+    }
+
+    /**
+     * The longest common package of the instrumented classes, or the first one's package if they share none.
+     */
+    String defaultPackage() {
+        String common = null;
+        String first = null;
+        for (ClassName generated : instrumented.values()) {
+            String pkg = generated.packageName();
+            if (first == null) first = pkg;
+            common = common == null ? pkg : MapperRegistryGenerator.commonPackage(common, pkg);
+        }
+        return common == null || common.isEmpty() ? (first == null ? "" : first) : common;
+    }
+
+    JavaFile generate(String packageName, String simpleName) {
+        MethodSpec.Builder snapshot = MethodSpec.methodBuilder("snapshot")
+                .addJavadoc("Current counters of every instrumented builder and mapper of this module.\n")
+                .addModifiers(PUBLIC, STATIC)
+                .returns(MetricsInstrumentation.SNAPSHOT_LIST)
+                .addStatement("$T snapshots = new $T<>()", MetricsInstrumentation.SNAPSHOT_LIST, ArrayList.class);
+        for (ClassName generated : instrumented.values()) {
+            snapshot.addStatement("snapshots.addAll($T.metricsSnapshot())", generated);
+        }
+        TypeSpec.Builder metrics = TypeSpec.classBuilder(simpleName)
+                .addJavadoc("Generated access to the runtime metrics of this module's instrumented builders and mappers.\n")
+                .addModifiers(PUBLIC, FINAL)
+                .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build())
+                .addMethod(snapshot.addStatement("return snapshots").build());
+        for (TypeElement e : originatingElements) {
+            metrics.addOriginatingElement(e);
+        }
+        return JavaFile.builder(packageName, metrics.build()).build();
+    }
+}
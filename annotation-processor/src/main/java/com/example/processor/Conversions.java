@@ -0,0 +1,146 @@
+package com.example.processor;
+
+import com.squareup.javapoet.CodeBlock;
+
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.function.Function;
+
+/**
+ * Type-aware value conversions for generated field copies.
+ * Same types and assignable references copy directly, primitives widen without boxing, boxed values unbox
+ * null-safely (null becomes the primitive default) and boxed numbers widen through their primitive value.
+ * Narrowing and unrelated types have no conversion.
+ */
+final class Conversions {
+
+    private final Types types;
+
+    Conversions(Types types) {
+        this.types = types;
+    }
+
+    /**
+     * Conversion from a value of type {@code from} to type {@code to}, or null when the types are incompatible.
+     */
+    Conversion find(TypeMirror from, TypeMirror to) {
+        if (types.isSameType(from, to)) {
+            return Conversion.DIRECT;
+        }
+        boolean fromPrimitive = from.getKind().isPrimitive();
+        boolean toPrimitive = to.getKind().isPrimitive();
+
+        if (fromPrimitive && toPrimitive) {
+            // Widening primitive conversion, e.g. int -> long; narrowing is not generated.
+            return types.isAssignable(from, to) ? Conversion.DIRECT : null;
+        }
+        if (fromPrimitive) {
+            PrimitiveType toUnboxed = unboxed(to);
+            if (toUnboxed == null) {
+                // Boxing into a supertype such as Object, Number or Comparable.
+                return types.isAssignable(from, to) ? Conversion.DIRECT : null;
+            }
+            if (types.isSameType(from, toUnboxed)) {
+                return Conversion.DIRECT;
+            }
+            // Widen first, then box once, e.g. int -> Long.
+            return types.isAssignable(from, toUnboxed)
+                    ? new Conversion(false, v -> CodeBlock.of("($L) $L", toUnboxed, v))
+                    : null;
+        }
+
+        PrimitiveType fromUnboxed = unboxed(from);
+        if (toPrimitive) {
+            if (fromUnboxed == null || !types.isAssignable(fromUnboxed, to)) {
+                return null;
+            }
+            String unbox = fromUnboxed + "Value";
+            String defaultValue = defaultValue(to.getKind());
+            return new Conversion(true, v -> CodeBlock.of("$L != null ? $L.$N() : $L", v, v, unbox, defaultValue));
+        }
+
+        if (types.isAssignable(from, to)) {
+            return Conversion.DIRECT;
+        }
+        PrimitiveType toUnboxed = unboxed(to);
+        if (fromUnboxed != null && toUnboxed != null && types.isAssignable(fromUnboxed, toUnboxed)) {
+            // Boxed widening, e.g. Integer -> Long: unbox, widen and box once; null stays null.
+            String unbox = fromUnboxed + "Value";
+            TypeMirror box = to;
+            return new Conversion(true, v -> CodeBlock.of("$L != null ? $T.valueOf(($L) $L.$N()) : null",
+                    v, box, toUnboxed, v, unbox));
+        }
+        return null;
+    }
+
+    private PrimitiveType unboxed(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) return null;
+        try {
+            return types.unboxedType(type);
+        } catch (IllegalArgumentException notABox) {
+            return null;
+        }
+    }
+
+    /**
+     * Java literal of the default value of a primitive kind.
+     */
+    static String defaultValue(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return "false";
+            case CHAR:
+                return "'\\u0000'";
+            case LONG:
+                return "0L";
+            case FLOAT:
+                return "0f";
+            case DOUBLE:
+                return "0d";
+            default:
+                return "0";
+        }
+    }
+
+    /**
+     * A conversion expression. When {@link #readsTwice()} is true the value is referenced more than once,
+     * so callers pass a local variable rather than a getter call. When {@link #threadsVisited()} is true the
+     * expression references a {@code visited} identity map (see {@link NestedMappings}), which callers must declare.
+     */
+    static final class Conversion {
+
+        static final Conversion DIRECT = new Conversion(false, false, v -> v);
+
+        private final boolean readsTwice;
+        private final boolean threadsVisited;
+        private final Function<CodeBlock, CodeBlock> expression;
+
+        private Conversion(boolean readsTwice, Function<CodeBlock, CodeBlock> expression) {
+            this(readsTwice, false, expression);
+        }
+
+        private Conversion(boolean readsTwice, boolean threadsVisited, Function<CodeBlock, CodeBlock> expression) {
+            this.readsTwice = readsTwice;
+            this.threadsVisited = threadsVisited;
+            this.expression = expression;
+        }
+
+        static Conversion of(boolean readsTwice, boolean threadsVisited, Function<CodeBlock, CodeBlock> expression) {
+            return new Conversion(readsTwice, threadsVisited, expression);
+        }
+
+        boolean readsTwice() {
+            return readsTwice;
+        }
+
+        boolean threadsVisited() {
+            return threadsVisited;
+        }
+
+        CodeBlock apply(CodeBlock value) {
+            return expression.apply(value);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.processor;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+
+/**
+ * How a type is instantiated from named values: either a no-args constructor followed by setters/field writes,
+ * or a single constructor or static factory call taking every value as an argument (which allows final fields
+ * and records).
+ */
+final class Creator {
+
+    enum Kind { SETTERS, CONSTRUCTOR, FACTORY }
+
+    final Kind kind;
+    /** The constructor or factory; null for {@link Kind#SETTERS}. */
+    final ExecutableElement executable;
+    /** Values the creator needs: the fields for SETTERS, the parameters otherwise. */
+    final List<VariableElement> properties;
+
+    private Creator(Kind kind, ExecutableElement executable, List<VariableElement> properties) {
+        this.kind = kind;
+        this.executable = executable;
+        this.properties = properties;
+    }
+
+    /**
+     * A constructor or static factory chosen explicitly, e.g. by annotating it with @AutoBuilder.
+     */
+    static Creator of(ExecutableElement executable) {
+        Kind kind = executable.getKind() == ElementKind.CONSTRUCTOR
+                ? Kind.CONSTRUCTOR : Kind.FACTORY;
+        return new Creator(kind, executable, Collections.unmodifiableList(new ArrayList<>(executable.getParameters())));
+    }
+
+    /**
+     * Default creator of a type, or null when there is none:
+     * 1. a public no-args constructor, when no instance field is final;
+     * 2. a non-private constructor whose parameters match the fields by name and type
+     *    (for records, the canonical constructor);
+     * 3. a public no-args constructor, leaving final fields out.
+     */
+    static Creator resolve(TypeModel model, Types types) {
+        List<VariableElement> fields = new ArrayList<>(model.fields().values());
+        boolean hasFinalField = fields.stream().anyMatch(f -> f.getModifiers().contains(FINAL));
+        if (model.hasPublicConstructor(0) && !hasFinalField) {
+            return new Creator(Kind.SETTERS, null, fields);
+        }
+        for (ExecutableElement ctor : model.constructors(fields.size())) {
+            if (!ctor.getModifiers().contains(PRIVATE) && matchesFields(ctor, model, types)) {
+                return of(ctor);
+            }
+        }
+        if (model.hasPublicConstructor(0)) {
+            return new Creator(Kind.SETTERS, null, fields);
+        }
+        return null;
+    }
+
+    private static boolean matchesFields(ExecutableElement ctor, TypeModel model, Types types) {
+        for (VariableElement param : ctor.getParameters()) {
+            VariableElement field = model.fields().get(param.getSimpleName().toString());
+            if (field == null || !types.isSameType(field.asType(), param.asType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The constructor or factory call with the given argument expressions, in parameter order.
+     */
+    CodeBlock invocation(ClassName type, List<CodeBlock> args) {
+        CodeBlock joined = CodeBlock.join(args, ", ");
+        return kind == Kind.FACTORY
+                ? CodeBlock.of("$T.$N($L)", type, executable.getSimpleName().toString(), joined)
+                : CodeBlock.of("new $T($L)", type, joined);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.processor;
+
+import com.example.annotations.AutoCodec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.Locale;
+
+/**
+ * Binary encodings of field values for generated codecs. Every value is written with the relative ByteBuffer
+ * methods, in the buffer's byte order:
+ * - primitives at their fixed width; boolean as one byte (0 or 1);
+ * - boxed primitives as a presence byte followed by the primitive when non-null;
+ * - strings as an int UTF-8 byte length (-1 for null) followed by the UTF-8 bytes;
+ * - enums as their int ordinal (-1 for null);
+ * - types annotated with @AutoCodec as a presence byte followed by their own codec's encoding.
+ * Other types have no encoding.
+ */
+final class Encodings {
+
+    enum Kind { PRIMITIVE, BOXED, STRING, ENUM, NESTED }
+
+    private final Types types;
+    private final Elements elements;
+
+    Encodings(Types types, Elements elements) {
+        this.types = types;
+        this.elements = elements;
+    }
+
+    /**
+     * Encoding of a value of the given type, or null when the type is not supported.
+     */
+    Encoding find(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return new Encoding(Kind.PRIMITIVE, type.getKind(), null);
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        if (element.getQualifiedName().contentEquals("java.lang.String")) {
+            return new Encoding(Kind.STRING, null, null);
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            return new Encoding(Kind.ENUM, null, ClassName.get(element));
+        }
+        if (element.getAnnotation(AutoCodec.class) != null) {
+            return new Encoding(Kind.NESTED, null, codecName(element));
+        }
+        try {
+            return new Encoding(Kind.BOXED, types.unboxedType(type).getKind(), null);
+        } catch (IllegalArgumentException notBoxed) {
+            return null;
+        }
+    }
+
+    /**
+     * {Type}Codec in the package of the given type.
+     */
+    ClassName codecName(TypeElement type) {
+        PackageElement pkg = elements.getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        return ClassName.get(packageName, type.getSimpleName() + "Codec");
+    }
+
+    /**
+     * Name of the generated constant caching {@code values()} of an enum, e.g. ORDER_STATUS_VALUES.
+     */
+    static String valuesConstant(ClassName enumType) {
+        String simpleNames = String.join("", enumType.simpleNames());
+        return simpleNames.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT) + "_VALUES";
+    }
+
+    static final class Encoding {
+
+        final Kind kind;
+        /** The primitive kind for PRIMITIVE and BOXED, null otherwise. */
+        final TypeKind primitive;
+        /** The enum type for ENUM, the codec class for NESTED, null otherwise. */
+        final ClassName type;
+
+        private Encoding(Kind kind, TypeKind primitive, ClassName type) {
+            this.kind = kind;
+            this.primitive = primitive;
+            this.type = type;
+        }
+
+        /**
+         * Whether the value expression is evaluated more than once, e.g. for a null check, so it should be a local.
+         */
+        boolean readsTwice() {
+            return kind == Kind.BOXED || kind == Kind.ENUM || kind == Kind.NESTED;
+        }
+
+        /**
+         * Encoded size in bytes when it does not depend on the value, -1 otherwise.
+         */
+        int fixedSize() {
+            switch (kind) {
+                case PRIMITIVE: return width(primitive);
+                case ENUM: return 4;
+                default: return -1;
+            }
+        }
+
+        /**
+         * Encoded size of a value with a variable size; {@code value} may be evaluated more than once.
+         */
+        CodeBlock size(CodeBlock value) {
+            switch (kind) {
+                case BOXED: return CodeBlock.of("($L != null ? $L : 1)", value, 1 + width(primitive));
+                case STRING: return CodeBlock.of("stringSize($L)", value);
+                case NESTED: return CodeBlock.of("($L != null ? 1 + $T.sizeOf($L) : 1)", value, type, value);
+                default: return CodeBlock.of("$L", fixedSize());
+            }
+        }
+
+        /**
+         * Statements writing the value to {@code buffer}; {@code value} may be evaluated more than once.
+         */
+        CodeBlock write(CodeBlock value) {
+            CodeBlock.Builder code = CodeBlock.builder();
+            switch (kind) {
+                case PRIMITIVE:
+                    code.addStatement("$L", putPrimitive(primitive, value));
+                    break;
+                case BOXED:
+                    code.addStatement("buffer.put((byte) ($L != null ? 1 : 0))", value)
+                            .beginControlFlow("if ($L != null)", value)
+                            .addStatement("$L", putPrimitive(primitive, value))
+                            .endControlFlow();
+                    break;
+                case STRING:
+                    code.addStatement("putString(buffer, $L)", value);
+                    break;
+                case ENUM:
+                    code.addStatement("buffer.putInt($L != null ? $L.ordinal() : -1)", value, value);
+                    break;
+                case NESTED:
+                    code.addStatement("buffer.put((byte) ($L != null ? 1 : 0))", value)
+                            .beginControlFlow("if ($L != null)", value)
+                            .addStatement("$T.write($L, buffer)", type, value)
+                            .endControlFlow();
+                    break;
+            }
+            return code.build();
+        }
+
+        /**
+         * Expression reading the value from {@code buffer}.
+         */
+        CodeBlock read() {
+            switch (kind) {
+                case PRIMITIVE:
+                    return getPrimitive(primitive);
+                case BOXED:
+                    return CodeBlock.of("buffer.get() != 0 ? $T.valueOf($L) : null",
+                            boxed(primitive), getPrimitive(primitive));
+                case STRING:
+                    return CodeBlock.of("getString(buffer)");
+                case ENUM:
+                    return CodeBlock.of("constant($N, buffer.getInt())", valuesConstant(type));
+                default:
+                    return CodeBlock.of("buffer.get() != 0 ? $T.read(buffer) : null", type);
+            }
+        }
+
+        private static CodeBlock putPrimitive(TypeKind kind, CodeBlock value) {
+            switch (kind) {
+                case BOOLEAN: return CodeBlock.of("buffer.put((byte) ($L ? 1 : 0))", value);
+                case BYTE: return CodeBlock.of("buffer.put($L)", value);
+                default: return CodeBlock.of("buffer.put$L($L)", suffix(kind), value);
+            }
+        }
+
+        private static CodeBlock getPrimitive(TypeKind kind) {
+            switch (kind) {
+                case BOOLEAN: return CodeBlock.of("buffer.get() != 0");
+                case BYTE: return CodeBlock.of("buffer.get()");
+                default: return CodeBlock.of("buffer.get$L()", suffix(kind));
+            }
+        }
+
+        private static String suffix(TypeKind kind) {
+            String name = kind.name();
+            return name.charAt(0) + name.substring(1).toLowerCase(Locale.ROOT);
+        }
+
+        private static Class<?> boxed(TypeKind kind) {
+            switch (kind) {
+                case BOOLEAN: return Boolean.class;
+                case BYTE: return Byte.class;
+                case SHORT: return Short.class;
+                case CHAR: return Character.class;
+                case INT: return Integer.class;
+                case LONG: return Long.class;
+                case FLOAT: return Float.class;
+                default: return Double.class;
+            }
+        }
+
+        private static int width(TypeKind kind) {
+            switch (kind) {
+                case BOOLEAN:
+                case BYTE: return 1;
+                case SHORT:
+                case CHAR: return 2;
+                case INT:
+                case FLOAT: return 4;
+                default: return 8;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.processor;
+
+import com.squareup.javapoet.CodeBlock;
+
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * One same-named field of a mapping direction, resolved once: how the value is read from the input
+ * (getter or direct field), how it is written to the output (setter or direct field) and how it is converted.
+ * The output's current value is also resolved when readable, for patches that only write changed values.
+ * A mapping that cannot be generated carries the reason instead, which is emitted as a comment.
+ */
+final class FieldMapping {
+
+    final String name;
+    final String getter;
+    final String setter;
+    final TypeMirror sourceType;
+    final TypeMirror targetType;
+    final Conversions.Conversion conversion;
+    final String currentGetter;
+    final TypeMirror currentType;
+    final String skipReason;
+
+    private FieldMapping(String name, String getter, String setter, TypeMirror sourceType, TypeMirror targetType,
+                         Conversions.Conversion conversion, String currentGetter, TypeMirror currentType,
+                         String skipReason) {
+        this.name = name;
+        this.getter = getter;
+        this.setter = setter;
+        this.sourceType = sourceType;
+        this.targetType = targetType;
+        this.conversion = conversion;
+        this.currentGetter = currentGetter;
+        this.currentType = currentType;
+        this.skipReason = skipReason;
+    }
+
+    /**
+     * @param getter getter name, or null to read the field directly
+     * @param setter setter name, or null to assign the field directly
+     * @param currentGetter output getter name, or null to read the output field directly
+     * @param currentType type of the output's current value, or null when it cannot be read
+     */
+    static FieldMapping of(String name, String getter, String setter, TypeMirror sourceType, TypeMirror targetType,
+                           Conversions.Conversion conversion, String currentGetter, TypeMirror currentType) {
+        return new FieldMapping(name, getter, setter, sourceType, targetType, conversion, currentGetter, currentType,
+                null);
+    }
+
+    static FieldMapping skipped(String name, String reason) {
+        return new FieldMapping(name, null, null, null, null, null, null, null, reason);
+    }
+
+    boolean isSkipped() {
+        return skipReason != null;
+    }
+
+    /**
+     * Name of the local holding the read value when the conversion needs it more than once.
+     */
+    String local() {
+        return name + "Value";
+    }
+
+    CodeBlock read(String var) {
+        return getter != null ? CodeBlock.of("$N.$N()", var, getter) : CodeBlock.of("$N.$N", var, name);
+    }
+
+    /**
+     * Reads the output's current value, or returns null when it cannot be read.
+     */
+    CodeBlock readCurrent(String var) {
+        if (currentType == null) return null;
+        return currentGetter != null ? CodeBlock.of("$N.$N()", var, currentGetter) : CodeBlock.of("$N.$N", var, name);
+    }
+
+    CodeBlock write(String var, CodeBlock value) {
+        return setter != null
+                ? CodeBlock.of("$N.$N($L)", var, setter, value)
+                : CodeBlock.of("$N.$N = $L", var, name, value);
+    }
+}
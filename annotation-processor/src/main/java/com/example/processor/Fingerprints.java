@@ -0,0 +1,256 @@
+package com.example.processor;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Manifest of structural fingerprints of generated files, enabled with {@code -Aautogen.fingerprints=path}.
+ * A fingerprint hashes the shape of every type a generated file is derived from (modifiers, supertypes, annotations,
+ * the signatures of enclosed elements and the annotations of the types they declare) together with the processor build and the {@code autogen.*} processor
+ * options. A processor skips the rendering and the Filer write of a file when its fingerprint matches the manifest
+ * and the generated type still resolves with its class file in this compilation's class output, i.e. it survived
+ * from the previous build (a copy elsewhere on the classpath does not count); otherwise it regenerates the file and
+ * records the new fingerprint. Analysis still runs, so a reused file's diagnostics and stats are reported on every
+ * build. The manifest is read on first use and written, sorted, at the end of the last round.
+ * Shared per compilation like {@link ProcessorStats}.
+ */
+final class Fingerprints {
+
+    static final String OPTION = "autogen.fingerprints";
+
+    private static final Map<Elements, Fingerprints> COMPILATIONS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+    private static final String PROCESSOR_BUILD = processorBuild();
+
+    private final String path;
+    private final Elements elements;
+    private final Filer filer;
+    /** The autogen.* processor options, sorted, as mixed into every fingerprint. */
+    private final String options;
+    private final SortedMap<String, String> manifest = new TreeMap<>();
+    private final Set<String> reused = new HashSet<>();
+    private boolean loaded;
+    private boolean changed;
+
+    private Fingerprints(Map<String, String> options, Elements elements, Filer filer) {
+        this.path = options.get(OPTION);
+        this.elements = elements;
+        this.filer = filer;
+        StringBuilder autogenOptions = new StringBuilder();
+        for (Map.Entry<String, String> e : new TreeMap<>(options).entrySet()) {
+            if (e.getKey().startsWith("autogen.")) {
+                autogenOptions.append('\n').append(e.getKey()).append('=').append(e.getValue());
+            }
+        }
+        this.options = autogenOptions.toString();
+    }
+
+    static Fingerprints of(ProcessingEnvironment processingEnv) {
+        return COMPILATIONS.computeIfAbsent(processingEnv.getElementUtils(),
+                elements -> new Fingerprints(processingEnv.getOptions(), elements, processingEnv.getFiler()));
+    }
+
+    boolean enabled() {
+        return path != null && !path.isEmpty();
+    }
+
+    /**
+     * Fingerprint of a file generated by {@code processor} from the given types, or null when disabled.
+     */
+    String compute(String processor, Collection<? extends TypeElement> types) {
+        if (!enabled()) return null;
+        StringBuilder shape = new StringBuilder(processor).append('\n').append(PROCESSOR_BUILD).append(options);
+        for (TypeElement type : types) {
+            describe(type, shape);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(shape.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Whether the generated type is up to date: the manifest has the same fingerprint and the type still resolves
+     * from this compilation's class output.
+     */
+    synchronized boolean isCurrent(String generated, String fingerprint) {
+        if (fingerprint == null) return false;
+        load();
+        boolean current = fingerprint.equals(manifest.get(generated)) && inClassOutput(elements.getTypeElement(generated));
+        if (current) {
+            reused.add(generated);
+        }
+        return current;
+    }
+
+    /**
+     * Whether a processor found the generated type up to date in this compilation and did not regenerate it.
+     */
+    synchronized boolean isReused(String generated) {
+        return reused.contains(generated);
+    }
+
+    /**
+     * Whether the (top-level) type has a class file in the class output, rather than only elsewhere on the classpath,
+     * e.g. in a stale jar of an earlier build.
+     */
+    private boolean inClassOutput(TypeElement type) {
+        if (type == null) return false;
+        String pkg = elements.getPackageOf(type).getQualifiedName().toString();
+        try {
+            filer.getResource(StandardLocation.CLASS_OUTPUT, pkg, type.getSimpleName() + ".class").openInputStream().close();
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    synchronized void record(String generated, String fingerprint) {
+        if (fingerprint == null) return;
+        load();
+        changed |= !fingerprint.equals(manifest.put(generated, fingerprint));
+    }
+
+    /**
+     * Writes the manifest if enabled and changed; called by every fingerprinting processor when processing is over.
+     * Entries of files not generated in this compilation are kept, since incremental builds only process some types.
+     */
+    synchronized void save(Messager messager) {
+        if (!enabled() || !changed) return;
+        changed = false;
+        Path out = Paths.get(path);
+        try {
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            try (Writer w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> e : manifest.entrySet()) {
+                    w.write(e.getKey() + "=" + e.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.WARNING,
+                    "Failed to write fingerprints to " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+        Path in = Paths.get(path);
+        if (!Files.isRegularFile(in)) return;
+        try (BufferedReader reader = Files.newBufferedReader(in, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int eq = line.indexOf('=');
+                if (eq > 0) {
+                    manifest.put(line.substring(0, eq), line.substring(eq + 1));
+                }
+            }
+        } catch (IOException e) {
+            // An unreadable manifest only means everything is regenerated
+            manifest.clear();
+        }
+    }
+
+    private static void describe(TypeElement type, StringBuilder out) {
+        out.append('\n').append(type.getKind()).append(' ').append(type.getModifiers()).append(' ')
+                .append(type.getQualifiedName()).append(type.getTypeParameters())
+                .append(" extends ").append(type.getSuperclass())
+                .append(" implements ").append(type.getInterfaces())
+                .append(' ').append(type.getAnnotationMirrors());
+        for (Element e : type.getEnclosedElements()) {
+            out.append("\n  ").append(e.getKind()).append(' ').append(e.getModifiers()).append(' ')
+                    .append(e.getSimpleName()).append(' ').append(e.asType())
+                    .append(' ').append(e.getAnnotationMirrors());
+            if (e instanceof ExecutableElement) {
+                ExecutableElement executable = (ExecutableElement) e;
+                // Parameter names matter to constructor-based creators and are not part of the type
+                for (VariableElement p : executable.getParameters()) {
+                    out.append(' ').append(p.getSimpleName()).append(p.getAnnotationMirrors());
+                    describeAnnotations(p.asType(), out);
+                }
+                describeAnnotations(executable.getReturnType(), out);
+            } else if (e.getKind() == ElementKind.FIELD) {
+                describeAnnotations(e.asType(), out);
+            }
+        }
+    }
+
+    /**
+     * Annotations of the declared types in a member's type, including type arguments and array components: a field
+     * whose type gains @AutoMapper becomes a nested conversion, so the mappers copying it must be regenerated.
+     */
+    private static void describeAnnotations(TypeMirror type, StringBuilder out) {
+        if (type instanceof ArrayType) {
+            describeAnnotations(((ArrayType) type).getComponentType(), out);
+        } else if (type instanceof WildcardType) {
+            WildcardType wildcard = (WildcardType) type;
+            if (wildcard.getExtendsBound() != null) describeAnnotations(wildcard.getExtendsBound(), out);
+            if (wildcard.getSuperBound() != null) describeAnnotations(wildcard.getSuperBound(), out);
+        } else if (type instanceof DeclaredType) {
+            DeclaredType declared = (DeclaredType) type;
+            List<? extends AnnotationMirror> annotations = declared.asElement().getAnnotationMirrors();
+            if (!annotations.isEmpty()) {
+                out.append(' ').append(((TypeElement) declared.asElement()).getQualifiedName()).append(annotations);
+            }
+            for (TypeMirror argument : declared.getTypeArguments()) {
+                describeAnnotations(argument, out);
+            }
+        }
+    }
+
+    /**
+     * Location and modification time of the processor classes, so a rebuilt processor regenerates everything.
+     */
+    private static String processorBuild() {
+        CodeSource source = Fingerprints.class.getProtectionDomain().getCodeSource();
+        if (source == null || source.getLocation() == null) return "";
+        try {
+            Path location = Paths.get(source.getLocation().toURI());
+            return location + "@" + Files.getLastModifiedTime(location).toMillis();
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            return source.getLocation().toString();
+        }
+    }
+}
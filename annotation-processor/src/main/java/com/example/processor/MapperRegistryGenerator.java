@@ -0,0 +1,265 @@
+package com.example.processor;
+
+import com.squareup.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import java.util.*;
+import java.util.function.Function;
+
+import static javax.lang.model.element.Modifier.*;
+
+/**
+ * Generates the per-module MapperRegistry: a precomputed dispatch from (source class, target class) to the
+ * static map/mapBack methods of the generated mappers. Lookups switch on the source class name (a cached,
+ * allocation-free string switch) and confirm by class identity; no reflection or classpath scanning.
+ * Registries with more than {@link #ENTRIES_PER_SHARD} pairs are split into nested Shard classes, chosen by a
+ * tableswitch on the hash of both class names, so no method or constant pool grows past one shard's pairs.
+ */
+final class MapperRegistryGenerator {
+
+    static final String SIMPLE_NAME = "MapperRegistry";
+    /** Expected pairs per shard; keeps each shard's find() and static initializer far below the 64 KB limit. */
+    static final int ENTRIES_PER_SHARD = 128;
+
+    private final Map<String, List<Entry>> entriesBySource = new LinkedHashMap<>();
+    private final Set<String> pairs = new HashSet<>();
+    private final Set<String> constantNames = new HashSet<>();
+    private final List<TypeElement> originatingElements = new ArrayList<>();
+    private int entryCount;
+
+    boolean isEmpty() {
+        return entriesBySource.isEmpty();
+    }
+
+    /**
+     * Registers both directions of a generated mapper. Duplicate (source, target) pairs keep the first mapper.
+     */
+    void add(TypeElement fromType, TypeElement targetType, String sourceName, String targetName, ClassName mapper) {
+        originatingElements.add(targetType);
+        originatingElements.add(fromType);
+        addEntry(fromType, targetType, sourceName, targetName, mapper, "map");
+        addEntry(targetType, fromType, targetName, sourceName, mapper, "mapBack");
+    }
+
+    private void addEntry(TypeElement in, TypeElement out, String inBinaryName, String outBinaryName,
+                          ClassName mapper, String method) {
+        if (!pairs.add(in.getQualifiedName() + "->" + out.getQualifiedName())) return;
+        String constant = constantName(in.getSimpleName() + "To" + out.getSimpleName());
+        entriesBySource.computeIfAbsent(inBinaryName, k -> new ArrayList<>())
+                .add(new Entry(ClassName.get(in), ClassName.get(out), mapper, method, constant,
+                        pairHash(inBinaryName, outBinaryName)));
+        entryCount++;
+    }
+
+    /**
+     * Hash of a pair of binary names; the generated find() computes the same from Class.getName(), whose result
+     * and hash are cached by the JDK.
+     */
+    private static int pairHash(String sourceName, String targetName) {
+        return 31 * sourceName.hashCode() + targetName.hashCode();
+    }
+
+    /**
+     * Registry package when none is configured: the longest common package of all registered mappers,
+     * or the first mapper's package if they share none.
+     */
+    String defaultPackage() {
+        String common = null;
+        String first = null;
+        for (List<Entry> entries : entriesBySource.values()) {
+            for (Entry e : entries) {
+                String pkg = e.mapper.packageName();
+                if (first == null) first = pkg;
+                common = common == null ? pkg : commonPackage(common, pkg);
+            }
+        }
+        return common == null || common.isEmpty() ? (first == null ? "" : first) : common;
+    }
+
+    JavaFile generate(String packageName, String simpleName) {
+        TypeVariableName s = TypeVariableName.get("S");
+        TypeVariableName t = TypeVariableName.get("T");
+        ParameterizedTypeName function = ParameterizedTypeName.get(ClassName.get(Function.class), s, t);
+        ParameterizedTypeName sourceClass = ParameterizedTypeName.get(ClassName.get(Class.class), s);
+        ParameterizedTypeName targetClass = ParameterizedTypeName.get(ClassName.get(Class.class), t);
+
+        TypeSpec.Builder registry = TypeSpec.classBuilder(simpleName)
+                .addJavadoc("Generated lookup from (source, target) class pairs to generated mappers.\n")
+                .addModifiers(PUBLIC, FINAL)
+                .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build());
+        for (TypeElement e : originatingElements) {
+            registry.addOriginatingElement(e);
+        }
+
+        int shards = (entryCount + ENTRIES_PER_SHARD - 1) / ENTRIES_PER_SHARD;
+        if (shards <= 1) {
+            registry.addMethod(findMethod(registry, entriesBySource, PUBLIC, STATIC));
+        } else {
+            List<Map<String, List<Entry>>> entriesByShard = new ArrayList<>(shards);
+            for (int i = 0; i < shards; i++) {
+                entriesByShard.add(new LinkedHashMap<>());
+            }
+            for (Map.Entry<String, List<Entry>> bySource : entriesBySource.entrySet()) {
+                for (Entry e : bySource.getValue()) {
+                    entriesByShard.get(Math.floorMod(e.hash, shards))
+                            .computeIfAbsent(bySource.getKey(), k -> new ArrayList<>())
+                            .add(e);
+                }
+            }
+
+            CodeBlock.Builder dispatch = CodeBlock.builder()
+                    .beginControlFlow("switch ($T.floorMod(31 * sourceType.getName().hashCode() + targetType.getName().hashCode(), $L))",
+                            Math.class, shards);
+            for (int i = 0; i < shards; i++) {
+                if (entriesByShard.get(i).isEmpty()) continue;
+                TypeSpec.Builder shard = TypeSpec.classBuilder("Shard" + i)
+                        .addModifiers(PRIVATE, STATIC, FINAL)
+                        .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build());
+                shard.addMethod(findMethod(shard, entriesByShard.get(i), STATIC));
+                registry.addType(shard.build());
+                dispatch.add("case $L:\n", i).indent()
+                        .addStatement("return Shard$L.find(sourceType, targetType)", i)
+                        .unindent();
+            }
+            dispatch.add("default:\n").indent().addStatement("return null").unindent().endControlFlow();
+            registry.addMethod(MethodSpec.methodBuilder("find")
+                    .addJavadoc("Mapping function for the pair, or null when no generated mapper exists.\n")
+                    .addModifiers(PUBLIC, STATIC)
+                    .addTypeVariable(s)
+                    .addTypeVariable(t)
+                    .returns(function)
+                    .addParameter(sourceClass, "sourceType")
+                    .addParameter(targetClass, "targetType")
+                    .addCode(dispatch.build())
+                    .build());
+        }
+
+        registry.addMethod(MethodSpec.methodBuilder("get")
+                .addJavadoc("Mapping function for the pair; throws IllegalArgumentException when none exists.\n")
+                .addModifiers(PUBLIC, STATIC)
+                .addTypeVariable(s)
+                .addTypeVariable(t)
+                .returns(function)
+                .addParameter(sourceClass, "sourceType")
+                .addParameter(targetClass, "targetType")
+                .addStatement("$T mapper = find(sourceType, targetType)", function)
+                .beginControlFlow("if (mapper == null)")
+                .addStatement("throw new $T($S + sourceType.getName() + $S + targetType.getName())",
+                        IllegalArgumentException.class, "No generated mapper from ", " to ")
+                .endControlFlow()
+                .addStatement("return mapper")
+                .build());
+
+        registry.addMethod(MethodSpec.methodBuilder("contains")
+                .addModifiers(PUBLIC, STATIC)
+                .returns(boolean.class)
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "sourceType")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)), "targetType")
+                .addStatement("return find(sourceType, targetType) != null")
+                .build());
+
+        ParameterizedTypeName objectFunction = ParameterizedTypeName.get(ClassName.get(Function.class),
+                ClassName.get(Object.class), t);
+        registry.addMethod(MethodSpec.methodBuilder("map")
+                .addJavadoc("Maps source by its runtime class, or else by its closest superclass with a mapper to the target;\n"
+                        + "throws IllegalArgumentException when none exists.\n")
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                .addModifiers(PUBLIC, STATIC)
+                .addTypeVariable(t)
+                .returns(t)
+                .addParameter(Object.class, "source")
+                .addParameter(targetClass, "targetType")
+                .beginControlFlow("for ($T<?> type = source.getClass(); type != null; type = type.getSuperclass())", Class.class)
+                .addStatement("$T mapper = find(($T<$T>) type, targetType)", objectFunction, Class.class, Object.class)
+                .beginControlFlow("if (mapper != null)")
+                .addStatement("return mapper.apply(source)")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("throw new $T($S + source.getClass().getName() + $S + targetType.getName())",
+                        IllegalArgumentException.class, "No generated mapper from ", " to ")
+                .build());
+
+        return JavaFile.builder(packageName, registry.build()).build();
+    }
+
+    /**
+     * find() over the given pairs, declaring their function constants on {@code holder}.
+     */
+    private static MethodSpec findMethod(TypeSpec.Builder holder, Map<String, List<Entry>> entries,
+                                         Modifier... modifiers) {
+        TypeVariableName s = TypeVariableName.get("S");
+        TypeVariableName t = TypeVariableName.get("T");
+        ParameterizedTypeName function = ParameterizedTypeName.get(ClassName.get(Function.class), s, t);
+
+        CodeBlock.Builder dispatch = CodeBlock.builder().beginControlFlow("switch (sourceType.getName())");
+        for (Map.Entry<String, List<Entry>> bySource : entries.entrySet()) {
+            dispatch.add("case $S:\n", bySource.getKey()).indent();
+            for (Entry e : bySource.getValue()) {
+                holder.addField(FieldSpec.builder(
+                                ParameterizedTypeName.get(ClassName.get(Function.class), e.in, e.out),
+                                e.constant, PRIVATE, STATIC, FINAL)
+                        .initializer("$T::$N", e.mapper, e.method)
+                        .build());
+                dispatch.beginControlFlow("if (sourceType == $T.class && targetType == $T.class)", e.in, e.out)
+                        .addStatement("return ($T) ($T<?, ?>) $N", function, Function.class, e.constant)
+                        .endControlFlow();
+            }
+            dispatch.addStatement("return null").unindent();
+        }
+        dispatch.add("default:\n").indent().addStatement("return null").unindent().endControlFlow();
+
+        return MethodSpec.methodBuilder("find")
+                .addJavadoc("Mapping function for the pair, or null when no generated mapper exists.\n")
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                .addModifiers(modifiers)
+                .addTypeVariable(s)
+                .addTypeVariable(t)
+                .returns(function)
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), s), "sourceType")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), t), "targetType")
+                .addCode(dispatch.build())
+                .build();
+    }
+
+    private String constantName(String camel) {
+        String base = camel.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+        String name = base;
+        for (int i = 2; !constantNames.add(name); i++) {
+            name = base + "_" + i;
+        }
+        return name;
+    }
+
+    /**
+     * Longest common package prefix of two packages, e.g. "com.acme" for "com.acme.a" and "com.acme.b".
+     */
+    static String commonPackage(String a, String b) {
+        String[] as = a.split("\\.");
+        String[] bs = b.split("\\.");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(as.length, bs.length) && as[i].equals(bs[i]); i++) {
+            if (sb.length() > 0) sb.append('.');
+            sb.append(as[i]);
+        }
+        return sb.toString();
+    }
+
+    private static final class Entry {
+        final ClassName in;
+        final ClassName out;
+        final ClassName mapper;
+        final String method;
+        final String constant;
+        final int hash;
+
+        Entry(ClassName in, ClassName out, ClassName mapper, String method, String constant, int hash) {
+            this.in = in;
+            this.out = out;
+            this.mapper = mapper;
+            this.method = method;
+            this.constant = constant;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.processor;
+
+import com.squareup.javapoet.*;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.util.*;
+
+import static javax.lang.model.element.Modifier.*;
+
+/**
+ * Generates {Target}View, a subclass of the target that wraps a source instance instead of copying it.
+ * Getters of mapped fields read from the source (with the same accessor resolution and conversions as mapInto, so
+ * nested mapped objects and containers are converted on every call);
+ * the first setter call copies the source into the view (copy-on-write) and the view behaves as a plain target
+ * from then on. materialize() returns a real, independent target.
+ * <p>
+ * Only getters and setX(value) methods declared on the target are intercepted; direct field access and other
+ * methods reading fields see the target's defaults until the view is written. equals, hashCode and toString
+ * declared on the target are answered by a materialized copy; equals is reflexive and compares two views by their
+ * materialized copies, but a plain target whose equals checks getClass() is never equal to a view, so
+ * target.equals(view) and view.equals(target) can disagree. Compare materialize() results when that matters.
+ */
+final class MapperViewGenerator {
+
+    private final Conversions conversions;
+    private final Types types;
+    private final Messager messager;
+
+    MapperViewGenerator(Conversions conversions, Types types, Messager messager) {
+        this.conversions = conversions;
+        this.types = types;
+        this.messager = messager;
+    }
+
+    static String viewName(TypeElement targetType) {
+        return targetType.getSimpleName() + "View";
+    }
+
+    /**
+     * The view type, or null (with a warning) when the target cannot be subclassed or a mapped field has no
+     * overridable getter.
+     */
+    TypeSpec generate(TypeModel fromModel, TypeModel targetModel, List<FieldMapping> toTarget, ClassName mapper) {
+        TypeElement targetType = targetModel.type();
+        String problem = null;
+        if (targetType.getModifiers().contains(FINAL) || targetType.getModifiers().contains(ABSTRACT)) {
+            problem = "the target is final or abstract";
+        } else if (targetModel.constructors(0).stream().allMatch(c -> c.getModifiers().contains(PRIVATE))) {
+            problem = "the target has no non-private no-args constructor";
+        } else if (!targetType.getTypeParameters().isEmpty()) {
+            problem = "the target is generic";
+        }
+
+        ClassName fromClass = ClassName.get(fromModel.type());
+        ClassName targetClass = ClassName.get(targetType);
+        List<MethodSpec> getters = new ArrayList<>();
+        for (FieldMapping f : toTarget) {
+            if (problem != null) break;
+            if (f.isSkipped()) continue;
+            VariableElement targetField = targetModel.fields().get(f.name);
+            Optional<ExecutableElement> getter = targetModel.findPublicMethod(TypeModel.getterName(targetField), 0);
+            Conversions.Conversion conversion = null;
+            if (getter.isPresent() && isOverridable(getter.get())) {
+                // mapInto's conversion (possibly through other mappers) when the getter returns the written type
+                TypeMirror returnType = getter.get().getReturnType();
+                conversion = types.isSameType(returnType, f.targetType)
+                        ? f.conversion
+                        : conversions.find(f.sourceType, returnType);
+            }
+            if (conversion == null) {
+                problem = "field '" + f.name + "' has no overridable public getter of a compatible type";
+                break;
+            }
+            getters.add(buildGetter(getter.get(), f, conversion, fromClass));
+        }
+        if (problem != null) {
+            messager.printMessage(Diagnostic.Kind.WARNING,
+                    "View " + viewName(targetType) + " is not generated because " + problem + ".", targetType);
+            return null;
+        }
+
+        TypeSpec.Builder view = TypeSpec.classBuilder(viewName(targetType))
+                .addJavadoc("Lazy view of a $T as a $T: getters read the source until the first setter call copies it.\n"
+                        + "equals compares materialized copies, so a $T whose equals checks getClass() never equals a view.\n"
+                        + "Not thread-safe.\n", fromClass, targetClass, targetClass)
+                .addOriginatingElement(targetType)
+                .addOriginatingElement(fromModel.type())
+                .addModifiers(PUBLIC, FINAL)
+                .superclass(targetClass)
+                .addField(fromClass, "source", PRIVATE)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(PUBLIC)
+                        .addParameter(fromClass, "source")
+                        .addStatement("this.source = source")
+                        .build())
+                .addMethods(getters);
+
+        for (ExecutableElement m : targetModel.methods()) {
+            if (isOverridable(m) && m.getSimpleName().toString().startsWith("set") && m.getParameters().size() == 1) {
+                view.addMethod(buildSetter(m));
+            }
+        }
+        for (ExecutableElement m : targetModel.methods()) {
+            if (isOverridable(m) && isObjectMethod(m)) {
+                view.addMethod(buildObjectMethod(m, ClassName.get(mapper.packageName(), viewName(targetType))));
+            }
+        }
+
+        view.addMethod(MethodSpec.methodBuilder("copyOnWrite")
+                .addModifiers(PRIVATE)
+                .addStatement("$T source = this.source", fromClass)
+                .beginControlFlow("if (source != null)")
+                .addStatement("this.source = null")
+                .addStatement("$T.mapInto(source, this)", mapper)
+                .endControlFlow()
+                .build());
+
+        view.addMethod(buildMaterialize(targetModel, fromClass, targetClass, mapper));
+        return view.build();
+    }
+
+    private MethodSpec buildGetter(ExecutableElement getter, FieldMapping f, Conversions.Conversion conversion,
+                                   ClassName fromClass) {
+        MethodSpec.Builder m = MethodSpec.overriding(getter)
+                .addStatement("$T source = this.source", fromClass)
+                .beginControlFlow("if (source == null)")
+                .addStatement("return super.$N()", getter.getSimpleName().toString())
+                .endControlFlow();
+        if (conversion.threadsVisited()) {
+            m.addStatement("$T visited = new $T<>()", NestedMappings.VISITED, IdentityHashMap.class);
+        }
+        CodeBlock value = f.read("source");
+        if (conversion.readsTwice()) {
+            m.addStatement("$T $N = $L", f.sourceType, f.local(), value);
+            value = CodeBlock.of("$N", f.local());
+        }
+        return m.addStatement("return $L", conversion.apply(value)).build();
+    }
+
+    private static MethodSpec buildSetter(ExecutableElement setter) {
+        String param = setter.getParameters().get(0).getSimpleName().toString();
+        MethodSpec.Builder m = MethodSpec.overriding(setter).addStatement("copyOnWrite()");
+        if (setter.getReturnType().getKind() == TypeKind.VOID) {
+            m.addStatement("super.$N($N)", setter.getSimpleName().toString(), param);
+        } else {
+            m.addStatement("return super.$N($N)", setter.getSimpleName().toString(), param);
+        }
+        return m.build();
+    }
+
+    private static MethodSpec buildObjectMethod(ExecutableElement method, ClassName viewClass) {
+        String name = method.getSimpleName().toString();
+        if (!name.equals("equals")) {
+            return MethodSpec.overriding(method).addStatement("return materialize().$N()", name).build();
+        }
+        // Materializing only this side would make a view unequal to itself when the target's equals checks getClass()
+        String other = method.getParameters().get(0).getSimpleName().toString();
+        return MethodSpec.overriding(method)
+                .beginControlFlow("if (this == $N)", other)
+                .addStatement("return true")
+                .endControlFlow()
+                .beginControlFlow("if ($N instanceof $T)", other, viewClass)
+                .addStatement("return materialize().equals((($T) $N).materialize())", viewClass, other)
+                .endControlFlow()
+                .addStatement("return materialize().equals($N)", other)
+                .build();
+    }
+
+    private static MethodSpec buildMaterialize(TypeModel targetModel, ClassName fromClass, ClassName targetClass,
+                                               ClassName mapper) {
+        MethodSpec.Builder m = MethodSpec.methodBuilder("materialize")
+                .addJavadoc("An independent $T with the view's current values.\n", targetClass)
+                .addModifiers(PUBLIC)
+                .returns(targetClass)
+                .addStatement("$T source = this.source", fromClass)
+                .beginControlFlow("if (source != null)")
+                .addStatement("return $T.map(source)", mapper)
+                .endControlFlow()
+                .addStatement("$T copy = new $T()", targetClass, targetClass);
+        for (Map.Entry<String, VariableElement> e : targetModel.fields().entrySet()) {
+            String name = e.getKey();
+            VariableElement field = e.getValue();
+            String getter = TypeModel.getterName(field);
+            String setter = TypeModel.setterName(name);
+            if (targetModel.hasPublicMethod(getter, 0) && targetModel.hasPublicMethod(setter, 1)) {
+                m.addStatement("copy.$N(super.$N())", setter, getter);
+            } else if (!field.getModifiers().contains(PRIVATE) && !field.getModifiers().contains(FINAL)) {
+                m.addStatement("copy.$N = this.$N", name, name);
+            } else {
+                m.addComment("Skipped copy of $N due to access restrictions or missing accessors", name);
+            }
+        }
+        return m.addStatement("return copy").build();
+    }
+
+    private static boolean isOverridable(ExecutableElement m) {
+        Set<Modifier> modifiers = m.getModifiers();
+        return modifiers.contains(PUBLIC) && !modifiers.contains(FINAL) && !modifiers.contains(STATIC);
+    }
+
+    private static boolean isObjectMethod(ExecutableElement m) {
+        String name = m.getSimpleName().toString();
+        int params = m.getParameters().size();
+        return (params == 0 && (name.equals("hashCode") || name.equals("toString")))
+                || (params == 1 && name.equals("equals")
+                && m.getParameters().get(0).asType().toString().equals("java.lang.Object"));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.processor;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static javax.lang.model.element.Modifier.*;
+
+/**
+ * Weaves com.example.runtime.MethodMetrics counters into methods of a generated class, for annotations with
+ * {@code metrics = true}. Each instrumented method gets a static {NAME}_METRICS field (shared by overloads) and
+ * becomes a wrapper calling its original code, moved to a private {name}$body method, inside try/finally, so calls
+ * that throw are counted and timed too. Methods taking a collection or array also count its size as batch items.
+ * Generated methods that delegate to an instrumented one (map to mapInto, mapAll to map) call its body (see
+ * {@link #bodyName}), so only the outermost call is counted. Overloads taking the identity map of a cyclic mapper are
+ * not wrapped, since the public entry points delegate to them. The class gets a static metricsSnapshot() listing its
+ * counters. Processors call this only when metrics are on, so the generated code is unchanged otherwise.
+ */
+final class MetricsInstrumentation {
+
+    static final ClassName METHOD_METRICS = ClassName.get("com.example.runtime", "MethodMetrics");
+    static final TypeName SNAPSHOT_LIST = ParameterizedTypeName.get(ClassName.get(List.class),
+            METHOD_METRICS.nestedClass("Snapshot"));
+
+    private MetricsInstrumentation() {
+    }
+
+    /**
+     * Name of the uninstrumented body of an instrumented method, e.g. map$body for map.
+     */
+    static String bodyName(String method) {
+        return method + "$body";
+    }
+
+    /**
+     * Wraps every method of {@code type} named in {@code methods} and adds the metrics fields and metricsSnapshot().
+     */
+    static void instrument(TypeSpec.Builder type, ClassName owner, Collection<String> methods) {
+        // Metrics field name -> instrumented method name, in declaration order
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (ListIterator<MethodSpec> it = type.methodSpecs.listIterator(); it.hasNext(); ) {
+            MethodSpec method = it.next();
+            if (!methods.contains(method.name) || tracksVisited(method)) continue;
+            String field = fieldName(method.name);
+            fields.putIfAbsent(field, method.name);
+            it.set(wrap(method, field));
+            it.add(body(method));
+        }
+
+        List<CodeBlock> snapshots = new ArrayList<>();
+        for (Map.Entry<String, String> e : fields.entrySet()) {
+            type.addField(FieldSpec.builder(METHOD_METRICS, e.getKey(), PRIVATE, STATIC, FINAL)
+                    .initializer("new $T($S)", METHOD_METRICS, owner.canonicalName() + "." + e.getValue())
+                    .build());
+            snapshots.add(CodeBlock.of("$N.snapshot()", e.getKey()));
+        }
+        type.addMethod(MethodSpec.methodBuilder("metricsSnapshot")
+                .addJavadoc("Current counters of the instrumented methods of this class.\n")
+                .addModifiers(PUBLIC, STATIC)
+                .returns(SNAPSHOT_LIST)
+                .addStatement("return $T.asList($L)", Arrays.class, CodeBlock.join(snapshots, ", "))
+                .build());
+    }
+
+    private static MethodSpec wrap(MethodSpec method, String field) {
+        List<CodeBlock> args = new ArrayList<>();
+        for (ParameterSpec parameter : method.parameters) {
+            args.add(CodeBlock.of("$N", parameter));
+        }
+        CodeBlock call = CodeBlock.of("$N($L)", bodyName(method.name), CodeBlock.join(args, ", "));
+
+        MethodSpec.Builder wrapped = MethodSpec.methodBuilder(method.name)
+                .addJavadoc(method.javadoc)
+                .addModifiers(method.modifiers)
+                .addTypeVariables(method.typeVariables)
+                .returns(method.returnType)
+                .addParameters(method.parameters)
+                .varargs(method.varargs)
+                .addExceptions(method.exceptions)
+                .addStatement("long metricsStart = $N.start()", field)
+                .beginControlFlow("try");
+        CodeBlock items = items(method);
+        if (items != null) {
+            wrapped.addStatement("$N.items($L)", field, items);
+        }
+        if (method.returnType.equals(TypeName.VOID)) {
+            wrapped.addStatement("$L", call);
+        } else {
+            wrapped.addStatement("return $L", call);
+        }
+        return wrapped.nextControlFlow("finally")
+                .addStatement("$N.end(metricsStart)", field)
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * The original method, private and renamed to its body name.
+     */
+    private static MethodSpec body(MethodSpec method) {
+        Set<Modifier> modifiers = EnumSet.of(PRIVATE);
+        if (method.modifiers.contains(STATIC)) {
+            modifiers.add(STATIC);
+        }
+        return MethodSpec.methodBuilder(bodyName(method.name))
+                .addAnnotations(method.annotations)
+                .addModifiers(modifiers)
+                .addTypeVariables(method.typeVariables)
+                .returns(method.returnType)
+                .addParameters(method.parameters)
+                .varargs(method.varargs)
+                .addExceptions(method.exceptions)
+                .addCode(method.code)
+                .build();
+    }
+
+    /**
+     * Batch size of a method whose first parameter is an array or a collection, else null.
+     */
+    private static CodeBlock items(MethodSpec method) {
+        if (method.parameters.isEmpty()) return null;
+        ParameterSpec first = method.parameters.get(0);
+        if (first.type instanceof ArrayTypeName) {
+            return CodeBlock.of("$N.length", first);
+        }
+        if (first.type instanceof ParameterizedTypeName) {
+            ClassName raw = ((ParameterizedTypeName) first.type).rawType;
+            if (raw.equals(ClassName.get(Collection.class)) || raw.equals(ClassName.get(List.class))) {
+                return CodeBlock.of("$N.size()", first);
+            }
+        }
+        return null;
+    }
+
+    private static boolean tracksVisited(MethodSpec method) {
+        for (ParameterSpec parameter : method.parameters) {
+            if (parameter.type.equals(NestedMappings.VISITED)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * e.g. MAP_BACK_ALL_METRICS for mapBackAll.
+     */
+    private static String fieldName(String method) {
+        return method.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT) + "_METRICS";
+    }
+}
@@ -0,0 +1,441 @@
+package com.example.processor;
+
+import com.example.annotations.AutoMapper;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.*;
+
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Conversions through other generated mappers, for nested objects and for the elements of collections, arrays and
+ * map values. A pair of types has a mapper when either type is annotated with @AutoMapper naming the other as its
+ * 'from' type; values are converted with a direct call to that mapper's map or mapBack. Collections, arrays and maps
+ * are copied by a generated helper into a container pre-sized to the input (ArrayList, LinkedHashSet or
+ * LinkedHashMap, whichever the target type accepts); null containers and null elements stay null.
+ * <p>
+ * Mappers form a graph through their fields. Its strongly connected components (Tarjan) tell which mappers can
+ * meet a cycle of objects: only mappers in a cyclic component get overloads taking an IdentityHashMap of the
+ * instances mapped so far, and only calls within that component pass it on. Acyclic mappers are generated as before.
+ * Built per round from the round's {@link TypeModelCache}.
+ */
+final class NestedMappings {
+
+    static final TypeName VISITED = ParameterizedTypeName.get(ClassName.get(IdentityHashMap.class),
+            ClassName.get(Object.class), ClassName.get(Object.class));
+
+    private final Types types;
+    private final Elements elements;
+    private final Conversions conversions;
+    private final TypeModelCache models;
+    private final TypeMirror collectionType;
+    private final TypeMirror mapType;
+    private final List<TypeMirror> collectionImplementations;
+    private final TypeMirror mapImplementation;
+
+    /** Mapper of each @AutoMapper target, or null for types without a usable annotation. */
+    private final Map<TypeElement, Node> nodes = new HashMap<>();
+    private final Deque<Node> stack = new ArrayDeque<>();
+    private int nextIndex;
+    private int nextComponent;
+
+    NestedMappings(Types types, Elements elements, Conversions conversions, TypeModelCache models) {
+        this.types = types;
+        this.elements = elements;
+        this.conversions = conversions;
+        this.models = models;
+        this.collectionType = erasure("java.util.Collection");
+        this.mapType = erasure("java.util.Map");
+        this.collectionImplementations = Arrays.asList(erasure("java.util.ArrayList"), erasure("java.util.LinkedHashSet"));
+        this.mapImplementation = erasure("java.util.LinkedHashMap");
+    }
+
+    /**
+     * Whether the mapper generated for the given @AutoMapper target can meet a cycle of objects.
+     */
+    boolean isCyclic(TypeElement target) {
+        Node node = node(target);
+        return node != null && analyzed(node).cyclic;
+    }
+
+    /**
+     * The 'from' and target types of every mapper reachable from the given target's mapper, itself first: the types
+     * that decide its nested conversions and whether it is cyclic.
+     */
+    List<TypeElement> reachableTypes(TypeElement target) {
+        List<TypeElement> result = new ArrayList<>();
+        Node start = node(target);
+        if (start == null) return result;
+        Set<Node> seen = new HashSet<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(start);
+        seen.add(start);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            result.add(node.target);
+            result.add(node.from);
+            for (Node next : edges(node)) {
+                if (seen.add(next)) pending.push(next);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Conversion from {@code source} to {@code target} through generated mappers, or null when neither the types
+     * nor their elements have a mapper (or a plain {@link Conversions} copy of the whole value applies).
+     * Containers get a static helper named {@code helperName} on {@code owner}, added to {@code helpers}.
+     *
+     * @param self the @AutoMapper target whose mapper is being generated
+     */
+    Conversions.Conversion find(TypeMirror source, TypeMirror target, TypeElement self, ClassName owner,
+                                String helperName, List<MethodSpec> helpers) {
+        Node current = node(self);
+        if (current == null) return null;
+        analyzed(current);
+
+        Link link = link(source, target);
+        if (link != null) {
+            return call(link, current);
+        }
+
+        MethodSpec helper = null;
+        if (source.getKind() == TypeKind.ARRAY && target.getKind() == TypeKind.ARRAY) {
+            helper = arrayHelper((ArrayType) source, (ArrayType) target, current, helperName);
+        } else if (source.getKind() == TypeKind.DECLARED && target.getKind() == TypeKind.DECLARED) {
+            if (isSubtype(source, collectionType)) {
+                helper = collectionHelper((DeclaredType) source, (DeclaredType) target, current, helperName);
+            } else if (isSubtype(source, mapType)) {
+                helper = mapHelper((DeclaredType) source, (DeclaredType) target, current, helperName);
+            }
+        }
+        if (helper == null) return null;
+        helpers.add(helper);
+        boolean threadsVisited = helper.parameters.size() > 1;
+        return Conversions.Conversion.of(false, threadsVisited, v -> threadsVisited
+                ? CodeBlock.of("$T.$N($L, visited)", owner, helperName, v)
+                : CodeBlock.of("$T.$N($L)", owner, helperName, v));
+    }
+
+    /**
+     * Conversion of single elements: a mapper call, else a plain conversion.
+     */
+    private Conversions.Conversion element(TypeMirror source, TypeMirror target, Node current) {
+        Link link = link(source, target);
+        return link != null ? call(link, current) : conversions.find(source, target);
+    }
+
+    /**
+     * Calls the linked mapper; within a cyclic component the visited instances are passed on, and the mapper
+     * handles null itself.
+     */
+    private static Conversions.Conversion call(Link link, Node current) {
+        ClassName mapper = link.mapper.name;
+        String method = link.back ? "mapBack" : "map";
+        if (current.cyclic && link.mapper.component == current.component) {
+            return Conversions.Conversion.of(false, true, v -> CodeBlock.of("$T.$N($L, visited)", mapper, method, v));
+        }
+        return Conversions.Conversion.of(true, false,
+                v -> CodeBlock.of("$L != null ? $T.$N($L) : null", v, mapper, method, v));
+    }
+
+    private MethodSpec arrayHelper(ArrayType source, ArrayType target, Node current, String name) {
+        TypeMirror sourceElement = source.getComponentType();
+        TypeMirror targetElement = target.getComponentType();
+        Conversions.Conversion element = element(sourceElement, targetElement, current);
+        if (element == null || isPlainCopy(element, source, target) || isParameterized(targetElement)) return null;
+
+        return helper(name, source, target, element)
+                .addStatement("$T result = new $T[sources.length]", TypeName.get(target), TypeName.get(targetElement))
+                .addStatement("int i = 0")
+                .beginControlFlow("for ($T source : sources)", TypeName.get(sourceElement))
+                .addStatement("result[i++] = $L", element.apply(CodeBlock.of("source")))
+                .endControlFlow()
+                .addStatement("return result")
+                .build();
+    }
+
+    private MethodSpec collectionHelper(DeclaredType source, DeclaredType target, Node current, String name) {
+        TypeMirror sourceElement = typeArgument(source, 0, 1);
+        TypeMirror targetElement = typeArgument(target, 0, 1);
+        TypeMirror implementation = implementation(target, collectionImplementations);
+        if (sourceElement == null || targetElement == null || implementation == null) return null;
+        Conversions.Conversion element = element(sourceElement, targetElement, current);
+        if (element == null || isPlainCopy(element, source, target)) return null;
+
+        ClassName raw = ClassName.get((TypeElement) types.asElement(implementation));
+        CodeBlock capacity = raw.simpleName().equals("ArrayList")
+                ? CodeBlock.of("sources.size()")
+                : CodeBlock.of("(int) (sources.size() / 0.75f) + 1");
+        return helper(name, source, target, element)
+                .addStatement("$T result = new $T<>($L)",
+                        ParameterizedTypeName.get(raw, TypeName.get(targetElement)), raw, capacity)
+                .beginControlFlow("for ($T source : sources)", TypeName.get(sourceElement))
+                .addStatement("result.add($L)", element.apply(CodeBlock.of("source")))
+                .endControlFlow()
+                .addStatement("return result")
+                .build();
+    }
+
+    private MethodSpec mapHelper(DeclaredType source, DeclaredType target, Node current, String name) {
+        TypeMirror sourceKey = typeArgument(source, 0, 2);
+        TypeMirror sourceValue = typeArgument(source, 1, 2);
+        TypeMirror targetKey = typeArgument(target, 0, 2);
+        TypeMirror targetValue = typeArgument(target, 1, 2);
+        TypeMirror implementation = implementation(target, Collections.singletonList(mapImplementation));
+        if (sourceKey == null || sourceValue == null || targetKey == null || targetValue == null
+                || implementation == null || !types.isAssignable(sourceKey, targetKey)) return null;
+        Conversions.Conversion value = element(sourceValue, targetValue, current);
+        if (value == null || isPlainCopy(value, source, target)) return null;
+
+        ClassName raw = ClassName.get((TypeElement) types.asElement(implementation));
+        TypeName entry = ParameterizedTypeName.get(ClassName.get(Map.Entry.class),
+                TypeName.get(source.getTypeArguments().get(0)), TypeName.get(source.getTypeArguments().get(1)));
+        MethodSpec.Builder helper = helper(name, source, target, value)
+                .addStatement("$T result = new $T<>((int) (sources.size() / 0.75f) + 1)",
+                        ParameterizedTypeName.get(raw, TypeName.get(targetKey), TypeName.get(targetValue)), raw)
+                .beginControlFlow("for ($T entry : sources.entrySet())", entry);
+        CodeBlock read = CodeBlock.of("entry.getValue()");
+        if (value.readsTwice()) {
+            helper.addStatement("$T value = $L", TypeName.get(sourceValue), read);
+            read = CodeBlock.of("value");
+        }
+        return helper.addStatement("result.put(entry.getKey(), $L)", value.apply(read))
+                .endControlFlow()
+                .addStatement("return result")
+                .build();
+    }
+
+    /**
+     * Signature and null check shared by the container helpers.
+     */
+    private static MethodSpec.Builder helper(String name, TypeMirror source, TypeMirror target,
+                                             Conversions.Conversion element) {
+        MethodSpec.Builder helper = MethodSpec.methodBuilder(name)
+                .addModifiers(STATIC)
+                .returns(TypeName.get(target))
+                .addParameter(TypeName.get(source), "sources");
+        if (element.threadsVisited()) {
+            helper.addParameter(VISITED, "visited");
+        }
+        return helper.beginControlFlow("if (sources == null)")
+                .addStatement("return null")
+                .endControlFlow();
+    }
+
+    /**
+     * Whether the whole container can simply be shared, as before nested mappings existed.
+     */
+    private boolean isPlainCopy(Conversions.Conversion element, TypeMirror source, TypeMirror target) {
+        return element == Conversions.Conversion.DIRECT && types.isAssignable(source, target);
+    }
+
+    /**
+     * The first implementation assignable to the target's raw type, or null.
+     */
+    private TypeMirror implementation(DeclaredType target, List<TypeMirror> candidates) {
+        TypeMirror raw = types.erasure(target);
+        for (TypeMirror candidate : candidates) {
+            if (types.isAssignable(candidate, raw)) return candidate;
+        }
+        return null;
+    }
+
+    /**
+     * The type argument at {@code index} (the bound of {@code ? extends X}), or null when the type does not have
+     * {@code count} arguments or the argument is unbounded, a lower bound or a type variable.
+     */
+    private static TypeMirror typeArgument(DeclaredType type, int index, int count) {
+        List<? extends TypeMirror> arguments = type.getTypeArguments();
+        if (arguments.size() != count) return null;
+        TypeMirror argument = arguments.get(index);
+        if (argument.getKind() == TypeKind.WILDCARD) {
+            argument = ((WildcardType) argument).getExtendsBound();
+        }
+        return argument == null || argument.getKind() == TypeKind.TYPEVAR ? null : argument;
+    }
+
+    private static boolean isParameterized(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && !((DeclaredType) type).getTypeArguments().isEmpty();
+    }
+
+    private boolean isSubtype(TypeMirror type, TypeMirror raw) {
+        return raw != null && types.isAssignable(types.erasure(type), raw);
+    }
+
+    private TypeMirror erasure(String name) {
+        TypeElement element = elements.getTypeElement(name);
+        return element == null ? null : types.erasure(element.asType());
+    }
+
+    /**
+     * The mapper between two declared types, in either direction, or null.
+     */
+    private Link link(TypeMirror source, TypeMirror target) {
+        if (source.getKind() != TypeKind.DECLARED || target.getKind() != TypeKind.DECLARED) return null;
+        TypeElement sourceElement = (TypeElement) ((DeclaredType) source).asElement();
+        TypeElement targetElement = (TypeElement) ((DeclaredType) target).asElement();
+        Node forward = node(targetElement);
+        if (forward != null && forward.from.equals(sourceElement)) {
+            return new Link(forward, false);
+        }
+        Node backward = node(sourceElement);
+        if (backward != null && backward.from.equals(targetElement)) {
+            return new Link(backward, true);
+        }
+        return null;
+    }
+
+    private Node node(TypeElement target) {
+        if (nodes.containsKey(target)) {
+            return nodes.get(target);
+        }
+        Node node = null;
+        AutoMapper ann = target.getAnnotation(AutoMapper.class);
+        TypeElement from = AutoMapperProcessor.getFromTypeElement(ann, types);
+        if (from != null) {
+            PackageElement pkg = elements.getPackageOf(target);
+            String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+            node = new Node(from, target,
+                    ClassName.get(packageName, from.getSimpleName() + "To" + target.getSimpleName() + "Mapper"));
+        }
+        nodes.put(target, node);
+        return node;
+    }
+
+    /**
+     * Mappers used by the fields of a mapper, directly or for container elements, in either direction.
+     */
+    private List<Node> edges(Node node) {
+        if (node.edges != null) {
+            return node.edges;
+        }
+        Set<Node> edges = new LinkedHashSet<>();
+        TypeModel from = models.get(node.from);
+        TypeModel target = models.get(node.target);
+        for (Map.Entry<String, VariableElement> e : target.fields().entrySet()) {
+            VariableElement inField = from.fields().get(e.getKey());
+            if (inField == null) continue;
+            TypeMirror in = inField.asType();
+            TypeMirror out = e.getValue().asType();
+            Link link = link(in, out);
+            if (link == null) {
+                link = link(elementType(in), elementType(out));
+            }
+            if (link != null) {
+                edges.add(link.mapper);
+            }
+        }
+        node.edges = new ArrayList<>(edges);
+        return node.edges;
+    }
+
+    /**
+     * Element type of an array, collection or map value type; the type itself otherwise.
+     */
+    private TypeMirror elementType(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return ((ArrayType) type).getComponentType();
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declared = (DeclaredType) type;
+            TypeMirror element = isSubtype(type, collectionType) ? typeArgument(declared, 0, 1)
+                    : isSubtype(type, mapType) ? typeArgument(declared, 1, 2)
+                    : null;
+            if (element != null) return element;
+        }
+        return type;
+    }
+
+    private Node analyzed(Node node) {
+        if (node.index < 0) {
+            connect(node);
+        }
+        return node;
+    }
+
+    /**
+     * Tarjan's strongly connected components, from one unvisited mapper. A component is cyclic when it has more
+     * than one mapper or its only mapper uses itself.
+     */
+    private void connect(Node node) {
+        node.index = nextIndex;
+        node.lowLink = nextIndex;
+        nextIndex++;
+        stack.push(node);
+        node.onStack = true;
+        for (Node next : edges(node)) {
+            if (next.index < 0) {
+                connect(next);
+                node.lowLink = Math.min(node.lowLink, next.lowLink);
+            } else if (next.onStack) {
+                node.lowLink = Math.min(node.lowLink, next.index);
+            }
+        }
+        if (node.lowLink != node.index) return;
+
+        int component = nextComponent++;
+        List<Node> members = new ArrayList<>();
+        Node member;
+        do {
+            member = stack.pop();
+            member.onStack = false;
+            member.component = component;
+            members.add(member);
+        } while (member != node);
+        boolean cyclic = members.size() > 1 || edges(node).contains(node);
+        for (Node m : members) {
+            m.cyclic = cyclic;
+        }
+    }
+
+    /**
+     * A generated mapper and its Tarjan state.
+     */
+    private static final class Node {
+
+        final TypeElement from;
+        final TypeElement target;
+        final ClassName name;
+        List<Node> edges;
+        int index = -1;
+        int lowLink;
+        boolean onStack;
+        int component = -1;
+        boolean cyclic;
+
+        Node(TypeElement from, TypeElement target, ClassName name) {
+            this.from = from;
+            this.target = target;
+            this.name = name;
+        }
+    }
+
+    /**
+     * A mapper converting a pair of types; {@code back} when it maps them with mapBack.
+     */
+    private static final class Link {
+
+        final Node mapper;
+        final boolean back;
+
+        Link(Node mapper, boolean back) {
+            this.mapper = mapper;
+            this.back = back;
+        }
+    }
+}
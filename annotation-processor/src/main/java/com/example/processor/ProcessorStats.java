@@ -0,0 +1,133 @@
+package com.example.processor;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Per-compilation timing report enabled with {@code -Aautogen.stats=path}.
+ * Processors record one {@link ElementStats} per generated file; the report is written at the end of the last round,
+ * as CSV when the path ends with ".csv" and as JSON otherwise.
+ * Build tools may wrap the {@link ProcessingEnvironment} per processor (Gradle does), so the shared instance is
+ * keyed by the compilation's {@link Elements}, which every wrapper delegates to.
+ */
+final class ProcessorStats {
+
+    static final String OPTION = "autogen.stats";
+
+    private static final Map<Elements, ProcessorStats> COMPILATIONS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String path;
+    private final List<ElementStats> elements = new ArrayList<>();
+    /** Number of elements in the last written report, or -1 before the first. */
+    private int reported = -1;
+
+    private ProcessorStats(String path) {
+        this.path = path;
+    }
+
+    static ProcessorStats of(ProcessingEnvironment processingEnv) {
+        return COMPILATIONS.computeIfAbsent(processingEnv.getElementUtils(),
+                elements -> new ProcessorStats(processingEnv.getOptions().get(OPTION)));
+    }
+
+    boolean enabled() {
+        return path != null && !path.isEmpty();
+    }
+
+    synchronized void record(ElementStats element) {
+        if (enabled()) {
+            elements.add(element);
+        }
+    }
+
+    /**
+     * Writes the report if enabled and changed since the last write; called by every processor when processing is
+     * over. Processors that run later in the last round may still record files, so each call rewrites the report
+     * with everything recorded so far and the last processor to finish leaves it complete.
+     */
+    synchronized void report(Messager messager) {
+        if (!enabled() || reported == elements.size()) return;
+        reported = elements.size();
+        Path out = Paths.get(path);
+        try {
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            try (Writer w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+                if (path.endsWith(".csv")) {
+                    writeCsv(w);
+                } else {
+                    writeJson(w);
+                }
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.WARNING,
+                    "Failed to write processor stats to " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void writeCsv(Writer w) throws IOException {
+        w.write("processor,element,generated,analysisNanos,renderNanos,writeNanos,fields,skippedFields,reused\n");
+        for (ElementStats e : elements) {
+            w.write(e.processor + "," + e.element + "," + e.generated + "," + e.analysisNanos + ","
+                    + e.renderNanos + "," + e.writeNanos + "," + e.fields + "," + e.skippedFields + "," + e.reused + "\n");
+        }
+    }
+
+    private void writeJson(Writer w) throws IOException {
+        w.write("{\n  \"elements\": [");
+        for (int i = 0; i < elements.size(); i++) {
+            ElementStats e = elements.get(i);
+            w.write(i == 0 ? "\n" : ",\n");
+            w.write("    {\"processor\": " + quote(e.processor)
+                    + ", \"element\": " + quote(e.element)
+                    + ", \"generated\": " + quote(e.generated)
+                    + ", \"analysisNanos\": " + e.analysisNanos
+                    + ", \"renderNanos\": " + e.renderNanos
+                    + ", \"writeNanos\": " + e.writeNanos
+                    + ", \"fields\": " + e.fields
+                    + ", \"skippedFields\": " + e.skippedFields
+                    + ", \"reused\": " + e.reused + "}");
+        }
+        w.write("\n  ]\n}\n");
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Timings and field counts for one generated file; a reused file (see {@link Fingerprints}) has no render or
+     * write time.
+     */
+    static final class ElementStats {
+        final String processor;
+        final String element;
+        String generated = "";
+        long analysisNanos;
+        long renderNanos;
+        long writeNanos;
+        int fields;
+        int skippedFields;
+        boolean reused;
+
+        ElementStats(String processor, String element) {
+            this.processor = processor;
+            this.element = element;
+        }
+    }
+}
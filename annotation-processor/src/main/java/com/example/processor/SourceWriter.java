@@ -0,0 +1,184 @@
+package com.example.processor;
+
+import com.squareup.javapoet.JavaFile;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes generated files with rendering and the Filer write timed separately, as {@link JavaFile#writeTo(Filer)}
+ * would. Processors collect a round's files with {@link #add} and write them with {@link #flush}: rounds of at least
+ * {@link #PARALLEL_THRESHOLD} files are rendered in parallel, since rendering independent JavaFiles shares no state.
+ * The Filer is not thread-safe, so the writes stay on the processor thread, in the order the files were added.
+ * <p>
+ * Rendering runs on a pool of at most one daemon thread per core, shared by the processors of a compilation and shut
+ * down by {@link #shutdown} in the last round, rather than on the common fork-join pool, which javac shares with
+ * other processors and, in a build daemon, with other work.
+ */
+final class SourceWriter {
+
+    static final int PARALLEL_THRESHOLD = 16;
+    static final String THREAD_NAME_PREFIX = "autogen-render-";
+
+    private static final Map<Elements, ExecutorService> POOLS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Filer filer;
+    private final Messager messager;
+    private final Elements elements;
+    private final ProcessorStats stats;
+    private final List<Pending> pending = new ArrayList<>();
+
+    SourceWriter(ProcessingEnvironment processingEnv, ProcessorStats stats) {
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+        this.elements = processingEnv.getElementUtils();
+        this.stats = stats;
+    }
+
+    /**
+     * Stops the compilation's render pool; called by every processor when processing is over, after its last flush.
+     * A processor flushing later in the last round starts a new pool, which the next call stops.
+     */
+    static void shutdown(ProcessingEnvironment processingEnv) {
+        ExecutorService pool = POOLS.remove(processingEnv.getElementUtils());
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Queues a file; {@code description} names it in the error reported when it cannot be written.
+     */
+    void add(JavaFile file, ProcessorStats.ElementStats elementStats, String description) {
+        pending.add(new Pending(file, elementStats, description));
+    }
+
+    /**
+     * Queues a file that {@link Fingerprints} found up to date: it is reported in the stats in order with the others,
+     * but neither rendered nor written.
+     */
+    void reuse(JavaFile file, ProcessorStats.ElementStats elementStats) {
+        elementStats.reused = true;
+        pending.add(new Pending(file, elementStats, null));
+    }
+
+    /**
+     * Renders and writes the queued files, recording the stats of each file written and reporting failures as errors.
+     */
+    void flush() {
+        List<Callable<Void>> renders = new ArrayList<>();
+        for (Pending p : pending) {
+            if (!p.stats.reused) {
+                renders.add(() -> {
+                    p.render();
+                    return null;
+                });
+            }
+        }
+        if (renders.size() < PARALLEL_THRESHOLD) {
+            for (Pending p : pending) {
+                p.render();
+            }
+        } else {
+            renderInParallel(renders);
+        }
+
+        for (Pending p : pending) {
+            if (p.stats.reused) {
+                p.stats.generated = name(p.file);
+                stats.record(p.stats);
+                continue;
+            }
+            try {
+                write(p);
+                stats.record(p.stats);
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to write " + p.description + ": " + e.getMessage());
+            }
+        }
+        pending.clear();
+    }
+
+    private void renderInParallel(List<Callable<Void>> renders) {
+        ExecutorService pool = POOLS.computeIfAbsent(elements, e -> newPool());
+        try {
+            for (Future<Void> render : pool.invokeAll(renders)) {
+                render.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rendering generated files", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ExecutorService newPool() {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, THREAD_NAME_PREFIX + threads.incrementAndGet());
+            // Never keeps a JVM alive, should a compilation end without its last round
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void write(Pending p) throws IOException {
+        JavaFile file = p.file;
+        String name = name(file);
+        p.stats.generated = name;
+
+        long start = System.nanoTime();
+        JavaFileObject out = filer.createSourceFile(name, file.typeSpec.originatingElements.toArray(new Element[0]));
+        try (Writer writer = out.openWriter()) {
+            writer.write(p.source);
+        }
+        p.stats.writeNanos = System.nanoTime() - start;
+    }
+
+    private static String name(JavaFile file) {
+        return file.packageName.isEmpty() ? file.typeSpec.name : file.packageName + "." + file.typeSpec.name;
+    }
+
+    private static final class Pending {
+
+        final JavaFile file;
+        final ProcessorStats.ElementStats stats;
+        final String description;
+        String source;
+
+        Pending(JavaFile file, ProcessorStats.ElementStats stats, String description) {
+            this.file = file;
+            this.stats = stats;
+            this.description = description;
+        }
+
+        void render() {
+            if (stats.reused) return;
+            long start = System.nanoTime();
+            source = file.toString();
+            stats.renderNanos = System.nanoTime() - start;
+        }
+    }
+}
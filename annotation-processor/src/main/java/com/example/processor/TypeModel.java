@@ -0,0 +1,133 @@
+package com.example.processor;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import java.util.*;
+
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Analyzed shape of an annotated (or referenced) type: non-static fields in declaration order,
+ * methods indexed by name and arity, and constructors indexed by arity.
+ * Built once per type and round through {@link TypeModelCache}, so lookups are hash-based.
+ */
+final class TypeModel {
+
+    private final TypeElement type;
+    private final Map<String, VariableElement> fields = new LinkedHashMap<>();
+    private final Map<String, List<ExecutableElement>> methods = new HashMap<>();
+    private final Map<Integer, List<ExecutableElement>> constructors = new HashMap<>();
+    private final List<ExecutableElement> methodList;
+
+    TypeModel(TypeElement type) {
+        this.type = type;
+        for (VariableElement f : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (!f.getModifiers().contains(STATIC)) {
+                fields.putIfAbsent(f.getSimpleName().toString(), f);
+            }
+        }
+        methodList = ElementFilter.methodsIn(type.getEnclosedElements());
+        for (ExecutableElement m : methodList) {
+            methods.computeIfAbsent(methodKey(m.getSimpleName().toString(), m.getParameters().size()),
+                    k -> new ArrayList<>(1)).add(m);
+        }
+        for (ExecutableElement c : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            constructors.computeIfAbsent(c.getParameters().size(), k -> new ArrayList<>(1)).add(c);
+        }
+    }
+
+    TypeElement type() {
+        return type;
+    }
+
+    /**
+     * Non-static fields by name, in declaration order.
+     */
+    Map<String, VariableElement> fields() {
+        return fields;
+    }
+
+    /**
+     * Declared methods, in declaration order.
+     */
+    List<ExecutableElement> methods() {
+        return methodList;
+    }
+
+    /**
+     * First declared method with the given name and arity, regardless of visibility.
+     */
+    Optional<ExecutableElement> findMethod(String name, int paramCount) {
+        List<ExecutableElement> candidates = methods.get(methodKey(name, paramCount));
+        return candidates == null ? Optional.empty() : Optional.of(candidates.get(0));
+    }
+
+    /**
+     * First declared public method with the given name and arity.
+     */
+    Optional<ExecutableElement> findPublicMethod(String name, int paramCount) {
+        List<ExecutableElement> candidates = methods.get(methodKey(name, paramCount));
+        if (candidates == null) return Optional.empty();
+        for (ExecutableElement m : candidates) {
+            if (m.getModifiers().contains(PUBLIC)) return Optional.of(m);
+        }
+        return Optional.empty();
+    }
+
+    boolean hasPublicMethod(String name, int paramCount) {
+        return findPublicMethod(name, paramCount).isPresent();
+    }
+
+    /**
+     * Constructors with the given arity regardless of visibility, in declaration order.
+     */
+    List<ExecutableElement> constructors(int paramCount) {
+        return constructors.getOrDefault(paramCount, Collections.emptyList());
+    }
+
+    /**
+     * Public constructors with the given arity, in declaration order.
+     */
+    List<ExecutableElement> publicConstructors(int paramCount) {
+        List<ExecutableElement> candidates = constructors.getOrDefault(paramCount, Collections.emptyList());
+        List<ExecutableElement> result = new ArrayList<>(candidates.size());
+        for (ExecutableElement c : candidates) {
+            if (c.getModifiers().contains(PUBLIC)) result.add(c);
+        }
+        return result;
+    }
+
+    boolean hasPublicConstructor(int paramCount) {
+        return !publicConstructors(paramCount).isEmpty();
+    }
+
+    /**
+     * Getter name for a field: the component accessor for record fields, isX for primitive booleans, getX otherwise.
+     */
+    static String getterName(VariableElement field) {
+        if (field.getEnclosingElement().getKind() == ElementKind.RECORD) {
+            return field.getSimpleName().toString();
+        }
+        String cap = capitalize(field.getSimpleName().toString());
+        if (field.asType().toString().equals("boolean")) {
+            return "is" + cap;
+        }
+        return "get" + cap;
+    }
+
+    static String setterName(String fieldName) {
+        return "set" + capitalize(fieldName);
+    }
+
+    static String capitalize(String s) {
+        return (s == null || s.isEmpty()) ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    private static String methodKey(String name, int paramCount) {
+        return name + "/" + paramCount;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.processor;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.TypeElement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Per-round cache of {@link TypeModel}s shared by all processors of a compilation.
+ * javac hands the same {@link RoundEnvironment} to every processor of a round, so it keys the cache;
+ * element instances from earlier rounds are not reused once the round is gone.
+ */
+final class TypeModelCache {
+
+    private static final Map<RoundEnvironment, TypeModelCache> ROUNDS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<TypeElement, TypeModel> models = new HashMap<>();
+
+    private TypeModelCache() {
+    }
+
+    static TypeModelCache forRound(RoundEnvironment roundEnv) {
+        return ROUNDS.computeIfAbsent(roundEnv, r -> new TypeModelCache());
+    }
+
+    TypeModel get(TypeElement type) {
+        return models.computeIfAbsent(type, TypeModel::new);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.runtime;
+
+/**
+ * Index-based access to the fields of a type, generated for classes annotated with
+ * {@link com.example.annotations.AutoAccessor} as {ClassName}Accessor.INSTANCE.
+ * Fields are numbered 0..fieldCount()-1 in declaration order. Indexes outside that range throw
+ * IndexOutOfBoundsException; the primitive getters throw IllegalArgumentException for fields whose type does not
+ * widen to the requested primitive, and set throws UnsupportedOperationException for read-only fields.
+ *
+ * @param <T> the accessed type
+ */
+public interface FieldAccessor<T> {
+
+    /**
+     * Number of accessible fields.
+     *
+     * @return the number of accessible fields
+     */
+    int fieldCount();
+
+    /**
+     * Field name.
+     *
+     * @param index field index
+     * @return the field name
+     */
+    String name(int index);
+
+    /**
+     * Field type; the erasure for parameterized types.
+     *
+     * @param index field index
+     * @return the field type, e.g. int.class for an int field
+     */
+    Class<?> type(int index);
+
+    /**
+     * Index of the named field, or -1 when there is none.
+     *
+     * @param name field name
+     * @return the field index, or -1
+     */
+    int indexOf(String name);
+
+    /**
+     * Whether {@link #set} can write the field: it has a setter or is neither private nor final.
+     *
+     * @param index field index
+     * @return whether the field is writable
+     */
+    boolean isWritable(int index);
+
+    /**
+     * Field value; primitives are boxed.
+     *
+     * @param instance the instance to read
+     * @param index    field index
+     * @return the field value
+     */
+    Object get(T instance, int index);
+
+    /**
+     * Writes a field. The value is cast to the field type, so primitive fields take their boxed type and throw
+     * NullPointerException for null.
+     *
+     * @param instance the instance to write
+     * @param index    field index
+     * @param value    the new value
+     */
+    void set(T instance, int index, Object value);
+
+    /**
+     * Field value as a boolean, without boxing.
+     *
+     * @param instance the instance to read
+     * @param index    index of a boolean field
+     * @return the field value
+     */
+    boolean getBoolean(T instance, int index);
+
+    /**
+     * Field value as a byte, without boxing.
+     *
+     * @param instance the instance to read
+     * @param index    index of a byte field
+     * @return the field value
+     */
+    byte getByte(T instance, int index);
+
+    /**
+     * Field value as a short, without boxing.
+     *
+     * @param instance the instance to read
+     * @param index    index of a byte or short field
+     * @return the field value
+     */
+    short getShort(T instance, int index);
+
+    /**
+     * Field value as a char, without boxing.
+     *
+     * @param instance the instance to read
+     * @param index    index of a char field
+     * @return the field value
+     */
+    char getChar(T instance, int index);
+
+    /**
+     * Field value as an int, without boxing.
+     *
+     * @param instance the instance to read
+     * @param index    index of a byte, short, char or int field
+     * @return the field value
+     */
+    int getInt(T instance, int index);
+
+    /**
+     * Field value as a long, without boxing.
+     *
+     * @param instance the instance to read
+     * @param index    index of a byte, short, char, int or long field
+     * @return the field value
+     */
+    long getLong(T instance, int index);
+
+    /**
+     * Field value as a float, without boxing.
+     *
+     * @param instance the instance to read
+     * @param index    index of a byte, short, char, int, long or float field
+     * @return the field value
+     */
+    float getFloat(T instance, int index);
+
+    /**
+     * Field value as a double, without boxing.
+     *
+     * @param instance the instance to read
+     * @param index    index of any primitive field but boolean
+     * @return the field value
+     */
+    double getDouble(T instance, int index);
+}
@@ -0,0 +1,163 @@
+package com.example.runtime;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one generated method, woven in when the annotation's {@code metrics} attribute is set.
+ * Every call is counted; one call in {@value #SAMPLE_RATE} (chosen at random) is also timed with
+ * System.nanoTime(), so the mean latency is estimated from the sampled calls. Batch methods also count
+ * the items they process. All counters are LongAdders, so concurrent callers do not contend.
+ */
+public final class MethodMetrics {
+
+    /** One call in this many is timed; a power of two. */
+    public static final int SAMPLE_RATE = 64;
+
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder sampledCalls = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+    private final LongAdder items = new LongAdder();
+
+    /**
+     * Creates zeroed counters.
+     *
+     * @param name the instrumented method, e.g. com.acme.UserToUserDtoMapper.map
+     */
+    public MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Counts a call and returns the token to pass to {@link #end(long)}: the start time for sampled calls.
+     *
+     * @return the token for {@link #end(long)}
+     */
+    public long start() {
+        calls.increment();
+        return (ThreadLocalRandom.current().nextInt() & (SAMPLE_RATE - 1)) == 0 ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    /**
+     * Records the latency of a sampled call; does nothing for calls that were not sampled.
+     *
+     * @param start the token returned by {@link #start()}
+     */
+    public void end(long start) {
+        if (start != NOT_SAMPLED) {
+            sampledNanos.add(System.nanoTime() - start);
+            sampledCalls.increment();
+        }
+    }
+
+    /**
+     * Counts the items of a batch call.
+     *
+     * @param count the number of items in the batch
+     */
+    public void items(long count) {
+        items.add(count);
+    }
+
+    /**
+     * Reads the counters.
+     *
+     * @return a copy of the current counters
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(name, calls.sum(), sampledCalls.sum(), sampledNanos.sum(), items.sum());
+    }
+
+    /**
+     * Point-in-time copy of the counters. The counters are read one by one while calls may be in flight,
+     * so the values are consistent only approximately.
+     */
+    public static final class Snapshot {
+
+        private final String name;
+        private final long calls;
+        private final long sampledCalls;
+        private final long sampledNanos;
+        private final long items;
+
+        Snapshot(String name, long calls, long sampledCalls, long sampledNanos, long items) {
+            this.name = name;
+            this.calls = calls;
+            this.sampledCalls = sampledCalls;
+            this.sampledNanos = sampledNanos;
+            this.items = items;
+        }
+
+        /**
+         * Name of the instrumented method.
+         *
+         * @return the method name, e.g. com.acme.UserToUserDtoMapper.map
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Calls counted, including calls that threw.
+         *
+         * @return the number of calls
+         */
+        public long calls() {
+            return calls;
+        }
+
+        /**
+         * Calls that were timed, about one in {@value MethodMetrics#SAMPLE_RATE}.
+         *
+         * @return the number of sampled calls
+         */
+        public long sampledCalls() {
+            return sampledCalls;
+        }
+
+        /**
+         * Total latency of the sampled calls.
+         *
+         * @return the sum of the sampled latencies in nanoseconds
+         */
+        public long sampledNanos() {
+            return sampledNanos;
+        }
+
+        /**
+         * Items processed by batch calls; 0 for single-value methods.
+         *
+         * @return the number of items
+         */
+        public long items() {
+            return items;
+        }
+
+        /**
+         * Mean latency of the sampled calls in nanoseconds, or 0 when no call was sampled yet.
+         *
+         * @return the mean sampled latency in nanoseconds
+         */
+        public double meanNanos() {
+            return sampledCalls == 0 ? 0 : (double) sampledNanos / sampledCalls;
+        }
+
+        /**
+         * Mean number of items per call, for batch methods.
+         *
+         * @return the mean number of items per call
+         */
+        public double meanItems() {
+            return calls == 0 ? 0 : (double) items / calls;
+        }
+
+        @Override
+        public String toString() {
+            return name + "{calls=" + calls + ", sampledCalls=" + sampledCalls + ", meanNanos=" + meanNanos()
+                    + ", items=" + items + "}";
+        }
+    }
+}
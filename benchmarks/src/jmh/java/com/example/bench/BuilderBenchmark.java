@@ -0,0 +1,211 @@
+package com.example.bench;
+
+import com.example.bench.model.WideUser;
+import com.example.bench.model.WideUserBuilder;
+import com.example.model.Account;
+import com.example.model.AccountBuilder;
+import com.example.model.User;
+import com.example.model.UserBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated builder build() against direct construction plus setters and reflection-based and MethodHandle-based
+ * population, for a 3-field and a 55-field model. smallInstrumented builds Account, User's instrumented twin
+ * ({@code metrics = true}), to measure the cost of the generated metrics against smallGenerated.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BuilderBenchmark {
+
+    private int id = 1;
+    private String name = "Alice";
+    private String email = "alice@example.com";
+
+    private final ReflectiveBuilder<User> smallReflective = new ReflectiveBuilder<>(User.class);
+    private final MethodHandleBuilder<User> smallMethodHandle =
+            new MethodHandleBuilder<>(User.class, smallReflective.properties());
+    private final ReflectiveBuilder<WideUser> wideReflective = new ReflectiveBuilder<>(WideUser.class);
+    private final MethodHandleBuilder<WideUser> wideMethodHandle =
+            new MethodHandleBuilder<>(WideUser.class, wideReflective.properties());
+
+    private Object[] smallValues;
+    private Object[] wideValues;
+
+    @Setup
+    public void setUp() {
+        smallValues = smallReflective.values(HandWritten.buildUser(id, name, email));
+        // The same values as wideGenerated/wideHandWritten
+        wideValues = wideReflective.values(WideFixtures.wideUser());
+    }
+
+    @Benchmark
+    public User smallGenerated() {
+        return new UserBuilder()
+                .id(id)
+                .name(name)
+                .email(email)
+                .build();
+    }
+
+    @Benchmark
+    public Account smallInstrumented() {
+        return new AccountBuilder()
+                .id(id)
+                .name(name)
+                .email(email)
+                .build();
+    }
+
+    @Benchmark
+    public User smallHandWritten() {
+        return HandWritten.buildUser(id, name, email);
+    }
+
+    @Benchmark
+    public User smallReflection() {
+        return smallReflective.build(smallValues);
+    }
+
+    @Benchmark
+    public User smallMethodHandle() {
+        return smallMethodHandle.build(smallValues);
+    }
+
+    @Benchmark
+    public WideUser wideGenerated() {
+        return new WideUserBuilder()
+                .int00(0)
+                .long01(1L)
+                .string02("value2")
+                .double03(3.5)
+                .boolean04(true)
+                .int05(5)
+                .long06(6L)
+                .string07("value7")
+                .double08(8.5)
+                .boolean09(true)
+                .int10(10)
+                .long11(11L)
+                .string12("value12")
+                .double13(13.5)
+                .boolean14(true)
+                .int15(15)
+                .long16(16L)
+                .string17("value17")
+                .double18(18.5)
+                .boolean19(true)
+                .int20(20)
+                .long21(21L)
+                .string22("value22")
+                .double23(23.5)
+                .boolean24(true)
+                .int25(25)
+                .long26(26L)
+                .string27("value27")
+                .double28(28.5)
+                .boolean29(true)
+                .int30(30)
+                .long31(31L)
+                .string32("value32")
+                .double33(33.5)
+                .boolean34(true)
+                .int35(35)
+                .long36(36L)
+                .string37("value37")
+                .double38(38.5)
+                .boolean39(true)
+                .int40(40)
+                .long41(41L)
+                .string42("value42")
+                .double43(43.5)
+                .boolean44(true)
+                .int45(45)
+                .long46(46L)
+                .string47("value47")
+                .double48(48.5)
+                .boolean49(true)
+                .int50(50)
+                .long51(51L)
+                .string52("value52")
+                .double53(53.5)
+                .boolean54(true)
+                .build();
+    }
+
+    @Benchmark
+    public WideUser wideHandWritten() {
+        WideUser user = new WideUser();
+        user.setInt00(0);
+        user.setLong01(1L);
+        user.setString02("value2");
+        user.setDouble03(3.5);
+        user.setBoolean04(true);
+        user.setInt05(5);
+        user.setLong06(6L);
+        user.setString07("value7");
+        user.setDouble08(8.5);
+        user.setBoolean09(true);
+        user.setInt10(10);
+        user.setLong11(11L);
+        user.setString12("value12");
+        user.setDouble13(13.5);
+        user.setBoolean14(true);
+        user.setInt15(15);
+        user.setLong16(16L);
+        user.setString17("value17");
+        user.setDouble18(18.5);
+        user.setBoolean19(true);
+        user.setInt20(20);
+        user.setLong21(21L);
+        user.setString22("value22");
+        user.setDouble23(23.5);
+        user.setBoolean24(true);
+        user.setInt25(25);
+        user.setLong26(26L);
+        user.setString27("value27");
+        user.setDouble28(28.5);
+        user.setBoolean29(true);
+        user.setInt30(30);
+        user.setLong31(31L);
+        user.setString32("value32");
+        user.setDouble33(33.5);
+        user.setBoolean34(true);
+        user.setInt35(35);
+        user.setLong36(36L);
+        user.setString37("value37");
+        user.setDouble38(38.5);
+        user.setBoolean39(true);
+        user.setInt40(40);
+        user.setLong41(41L);
+        user.setString42("value42");
+        user.setDouble43(43.5);
+        user.setBoolean44(true);
+        user.setInt45(45);
+        user.setLong46(46L);
+        user.setString47("value47");
+        user.setDouble48(48.5);
+        user.setBoolean49(true);
+        user.setInt50(50);
+        user.setLong51(51L);
+        user.setString52("value52");
+        user.setDouble53(53.5);
+        user.setBoolean54(true);
+        return user;
+    }
+
+    @Benchmark
+    public WideUser wideReflection() {
+        return wideReflective.build(wideValues);
+    }
+
+    @Benchmark
+    public WideUser wideMethodHandle() {
+        return wideMethodHandle.build(wideValues);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.bench;
+
+import com.example.bench.model.WideUser;
+import com.example.bench.model.WideUserDto;
+import com.example.model.User;
+import com.example.model.UserDto;
+
+/**
+ * Hand-written equivalents of the generated builders and mappers, used as the baseline.
+ */
+final class HandWritten {
+
+    private HandWritten() {
+    }
+
+    static User buildUser(int id, String name, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        return user;
+    }
+
+    static UserDto map(User from) {
+        UserDto target = new UserDto();
+        target.setId(from.getId());
+        target.setName(from.getName());
+        target.setEmail(from.getEmail());
+        return target;
+    }
+
+    static User mapBack(UserDto target) {
+        User from = new User();
+        from.setId(target.getId());
+        from.setName(target.getName());
+        from.setEmail(target.getEmail());
+        return from;
+    }
+
+    static WideUserDto map(WideUser from) {
+        WideUserDto target = new WideUserDto();
+        target.setInt00(from.getInt00());
+        target.setLong01(from.getLong01());
+        target.setString02(from.getString02());
+        target.setDouble03(from.getDouble03());
+        target.setBoolean04(from.isBoolean04());
+        target.setInt05(from.getInt05());
+        target.setLong06(from.getLong06());
+        target.setString07(from.getString07());
+        target.setDouble08(from.getDouble08());
+        target.setBoolean09(from.isBoolean09());
+        target.setInt10(from.getInt10());
+        target.setLong11(from.getLong11());
+        target.setString12(from.getString12());
+        target.setDouble13(from.getDouble13());
+        target.setBoolean14(from.isBoolean14());
+        target.setInt15(from.getInt15());
+        target.setLong16(from.getLong16());
+        target.setString17(from.getString17());
+        target.setDouble18(from.getDouble18());
+        target.setBoolean19(from.isBoolean19());
+        target.setInt20(from.getInt20());
+        target.setLong21(from.getLong21());
+        target.setString22(from.getString22());
+        target.setDouble23(from.getDouble23());
+        target.setBoolean24(from.isBoolean24());
+        target.setInt25(from.getInt25());
+        target.setLong26(from.getLong26());
+        target.setString27(from.getString27());
+        target.setDouble28(from.getDouble28());
+        target.setBoolean29(from.isBoolean29());
+        target.setInt30(from.getInt30());
+        target.setLong31(from.getLong31());
+        target.setString32(from.getString32());
+        target.setDouble33(from.getDouble33());
+        target.setBoolean34(from.isBoolean34());
+        target.setInt35(from.getInt35());
+        target.setLong36(from.getLong36());
+        target.setString37(from.getString37());
+        target.setDouble38(from.getDouble38());
+        target.setBoolean39(from.isBoolean39());
+        target.setInt40(from.getInt40());
+        target.setLong41(from.getLong41());
+        target.setString42(from.getString42());
+        target.setDouble43(from.getDouble43());
+        target.setBoolean44(from.isBoolean44());
+        target.setInt45(from.getInt45());
+        target.setLong46(from.getLong46());
+        target.setString47(from.getString47());
+        target.setDouble48(from.getDouble48());
+        target.setBoolean49(from.isBoolean49());
+        target.setInt50(from.getInt50());
+        target.setLong51(from.getLong51());
+        target.setString52(from.getString52());
+        target.setDouble53(from.getDouble53());
+        target.setBoolean54(from.isBoolean54());
+        return target;
+    }
+
+    static WideUser mapBack(WideUserDto target) {
+        WideUser from = new WideUser();
+        from.setInt00(target.getInt00());
+        from.setLong01(target.getLong01());
+        from.setString02(target.getString02());
+        from.setDouble03(target.getDouble03());
+        from.setBoolean04(target.isBoolean04());
+        from.setInt05(target.getInt05());
+        from.setLong06(target.getLong06());
+        from.setString07(target.getString07());
+        from.setDouble08(target.getDouble08());
+        from.setBoolean09(target.isBoolean09());
+        from.setInt10(target.getInt10());
+        from.setLong11(target.getLong11());
+        from.setString12(target.getString12());
+        from.setDouble13(target.getDouble13());
+        from.setBoolean14(target.isBoolean14());
+        from.setInt15(target.getInt15());
+        from.setLong16(target.getLong16());
+        from.setString17(target.getString17());
+        from.setDouble18(target.getDouble18());
+        from.setBoolean19(target.isBoolean19());
+        from.setInt20(target.getInt20());
+        from.setLong21(target.getLong21());
+        from.setString22(target.getString22());
+        from.setDouble23(target.getDouble23());
+        from.setBoolean24(target.isBoolean24());
+        from.setInt25(target.getInt25());
+        from.setLong26(target.getLong26());
+        from.setString27(target.getString27());
+        from.setDouble28(target.getDouble28());
+        from.setBoolean29(target.isBoolean29());
+        from.setInt30(target.getInt30());
+        from.setLong31(target.getLong31());
+        from.setString32(target.getString32());
+        from.setDouble33(target.getDouble33());
+        from.setBoolean34(target.isBoolean34());
+        from.setInt35(target.getInt35());
+        from.setLong36(target.getLong36());
+        from.setString37(target.getString37());
+        from.setDouble38(target.getDouble38());
+        from.setBoolean39(target.isBoolean39());
+        from.setInt40(target.getInt40());
+        from.setLong41(target.getLong41());
+        from.setString42(target.getString42());
+        from.setDouble43(target.getDouble43());
+        from.setBoolean44(target.isBoolean44());
+        from.setInt45(target.getInt45());
+        from.setLong46(target.getLong46());
+        from.setString47(target.getString47());
+        from.setDouble48(target.getDouble48());
+        from.setBoolean49(target.isBoolean49());
+        from.setInt50(target.getInt50());
+        from.setLong51(target.getLong51());
+        from.setString52(target.getString52());
+        from.setDouble53(target.getDouble53());
+        from.setBoolean54(target.isBoolean54());
+        return from;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bench;
+
+import com.example.bench.model.WideUser;
+import com.example.bench.model.WideUserDto;
+import com.example.bench.model.WideUserToWideUserDtoMapper;
+import com.example.model.Account;
+import com.example.model.AccountDto;
+import com.example.model.AccountToAccountDtoMapper;
+import com.example.model.User;
+import com.example.model.UserDto;
+import com.example.model.UserToUserDtoMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated map/mapBack against hand-written, reflection-based and MethodHandle-based copying,
+ * for a 3-field and a 55-field model. Run with -prof gc (configured in build.gradle) for allocation rates.
+ * The small*Instrumented benchmarks map Account, User's instrumented twin ({@code metrics = true}), to measure the
+ * cost of the generated metrics against the small*Generated ones.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private final ReflectiveCopier<User, UserDto> smallReflective = new ReflectiveCopier<>(User.class, UserDto.class);
+    private final MethodHandleCopier<User, UserDto> smallMethodHandle = new MethodHandleCopier<>(User.class, UserDto.class);
+    private final ReflectiveCopier<WideUser, WideUserDto> wideReflective = new ReflectiveCopier<>(WideUser.class, WideUserDto.class);
+    private final MethodHandleCopier<WideUser, WideUserDto> wideMethodHandle = new MethodHandleCopier<>(WideUser.class, WideUserDto.class);
+    private final ReflectiveCopier<UserDto, User> smallBackReflective = new ReflectiveCopier<>(UserDto.class, User.class);
+    private final MethodHandleCopier<UserDto, User> smallBackMethodHandle = new MethodHandleCopier<>(UserDto.class, User.class);
+    private final ReflectiveCopier<WideUserDto, WideUser> wideBackReflective = new ReflectiveCopier<>(WideUserDto.class, WideUser.class);
+    private final MethodHandleCopier<WideUserDto, WideUser> wideBackMethodHandle = new MethodHandleCopier<>(WideUserDto.class, WideUser.class);
+
+    private User user;
+    private UserDto userDto;
+    private Account account;
+    private AccountDto accountDto;
+    private WideUser wideUser;
+    private WideUserDto wideUserDto;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId(1);
+        user.setName("Alice");
+        user.setEmail("alice@example.com");
+        userDto = UserToUserDtoMapper.map(user);
+        account = new Account();
+        account.setId(1);
+        account.setName("Alice");
+        account.setEmail("alice@example.com");
+        accountDto = AccountToAccountDtoMapper.map(account);
+        wideUser = WideFixtures.wideUser();
+        wideUserDto = WideFixtures.wideUserDto();
+    }
+
+    @Benchmark
+    public UserDto smallMapGenerated() {
+        return UserToUserDtoMapper.map(user);
+    }
+
+    @Benchmark
+    public User smallMapBackGenerated() {
+        return UserToUserDtoMapper.mapBack(userDto);
+    }
+
+    @Benchmark
+    public AccountDto smallMapInstrumented() {
+        return AccountToAccountDtoMapper.map(account);
+    }
+
+    @Benchmark
+    public Account smallMapBackInstrumented() {
+        return AccountToAccountDtoMapper.mapBack(accountDto);
+    }
+
+    @Benchmark
+    public UserDto smallMapHandWritten() {
+        return HandWritten.map(user);
+    }
+
+    @Benchmark
+    public User smallMapBackHandWritten() {
+        return HandWritten.mapBack(userDto);
+    }
+
+    @Benchmark
+    public UserDto smallMapReflection() {
+        return smallReflective.copy(user);
+    }
+
+    @Benchmark
+    public UserDto smallMapMethodHandle() {
+        return smallMethodHandle.copy(user);
+    }
+
+    @Benchmark
+    public User smallMapBackReflection() {
+        return smallBackReflective.copy(userDto);
+    }
+
+    @Benchmark
+    public User smallMapBackMethodHandle() {
+        return smallBackMethodHandle.copy(userDto);
+    }
+
+    @Benchmark
+    public WideUserDto wideMapGenerated() {
+        return WideUserToWideUserDtoMapper.map(wideUser);
+    }
+
+    @Benchmark
+    public WideUser wideMapBackGenerated() {
+        return WideUserToWideUserDtoMapper.mapBack(wideUserDto);
+    }
+
+    @Benchmark
+    public WideUserDto wideMapHandWritten() {
+        return HandWritten.map(wideUser);
+    }
+
+    @Benchmark
+    public WideUser wideMapBackHandWritten() {
+        return HandWritten.mapBack(wideUserDto);
+    }
+
+    @Benchmark
+    public WideUserDto wideMapReflection() {
+        return wideReflective.copy(wideUser);
+    }
+
+    @Benchmark
+    public WideUserDto wideMapMethodHandle() {
+        return wideMethodHandle.copy(wideUser);
+    }
+
+    @Benchmark
+    public WideUser wideMapBackReflection() {
+        return wideBackReflective.copy(wideUserDto);
+    }
+
+    @Benchmark
+    public WideUser wideMapBackMethodHandle() {
+        return wideBackMethodHandle.copy(wideUserDto);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * MethodHandle-based builder baseline: the public setters of the given properties resolved once and adapted to
+ * (Object, Object)void, then a new instance populated with invokeExact from an array of values on every call.
+ */
+final class MethodHandleBuilder<T> {
+
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType FACTORY = MethodType.methodType(Object.class);
+
+    private final MethodHandle ctor;
+    private final MethodHandle[] setters;
+
+    MethodHandleBuilder(Class<T> type, String[] properties) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        this.setters = new MethodHandle[properties.length];
+        try {
+            this.ctor = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(FACTORY);
+            for (int i = 0; i < properties.length; i++) {
+                setters[i] = lookup.unreflect(setter(type, properties[i])).asType(SETTER);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot build builder for " + type, e);
+        }
+    }
+
+    T build(Object[] values) {
+        try {
+            @SuppressWarnings("unchecked")
+            T instance = (T) (Object) ctor.invokeExact();
+            for (int i = 0; i < setters.length; i++) {
+                setters[i].invokeExact((Object) instance, values[i]);
+            }
+            return instance;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static Method setter(Class<?> type, String property) throws NoSuchMethodException {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Method m : type.getMethods()) {
+            if (m.getName().equals(name) && m.getParameterCount() == 1) return m;
+        }
+        throw new NoSuchMethodException(type.getName() + "." + name);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MethodHandle-based bean copier: public getter/setter pairs resolved once and adapted to
+ * (Object)Object / (Object, Object)void, then invoked with invokeExact on every call.
+ */
+final class MethodHandleCopier<S, T> {
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType FACTORY = MethodType.methodType(Object.class);
+
+    private final MethodHandle targetCtor;
+    private final MethodHandle[] getters;
+    private final MethodHandle[] setters;
+
+    MethodHandleCopier(Class<S> sourceType, Class<T> targetType) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        List<MethodHandle> gets = new ArrayList<>();
+        List<MethodHandle> sets = new ArrayList<>();
+        try {
+            this.targetCtor = lookup.findConstructor(targetType, MethodType.methodType(void.class)).asType(FACTORY);
+            for (Method getter : sourceType.getMethods()) {
+                if (Modifier.isStatic(getter.getModifiers()) || getter.getParameterCount() != 0
+                        || getter.getDeclaringClass() == Object.class) continue;
+                String property = propertyName(getter.getName());
+                if (property == null) continue;
+                Method setter;
+                try {
+                    setter = targetType.getMethod("set" + property, getter.getReturnType());
+                } catch (NoSuchMethodException e) {
+                    continue;
+                }
+                gets.add(lookup.unreflect(getter).asType(GETTER));
+                sets.add(lookup.unreflect(setter).asType(SETTER));
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot build copier for " + sourceType + " -> " + targetType, e);
+        }
+        this.getters = gets.toArray(new MethodHandle[0]);
+        this.setters = sets.toArray(new MethodHandle[0]);
+    }
+
+    T copy(S source) {
+        try {
+            @SuppressWarnings("unchecked")
+            T target = (T) (Object) targetCtor.invokeExact();
+            for (int i = 0; i < getters.length; i++) {
+                Object value = (Object) getters[i].invokeExact((Object) source);
+                setters[i].invokeExact((Object) target, value);
+            }
+            return target;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static String propertyName(String methodName) {
+        if (methodName.startsWith("get") && methodName.length() > 3) return methodName.substring(3);
+        if (methodName.startsWith("is") && methodName.length() > 2) return methodName.substring(2);
+        return null;
+    }
+}
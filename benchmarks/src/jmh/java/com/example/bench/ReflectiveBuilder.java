@@ -0,0 +1,67 @@
+package com.example.bench;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reflection-based builder baseline: the type's instance fields resolved once, then a new instance populated through
+ * {@link Field#set(Object, Object)} from an array of values in {@link #properties()} order on every call.
+ */
+final class ReflectiveBuilder<T> {
+
+    private final Constructor<T> ctor;
+    private final Field[] fields;
+
+    ReflectiveBuilder(Class<T> type) {
+        try {
+            this.ctor = type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type + " has no no-args constructor", e);
+        }
+        List<Field> resolved = new ArrayList<>();
+        for (Field f : type.getDeclaredFields()) {
+            if (Modifier.isStatic(f.getModifiers())) continue;
+            f.setAccessible(true);
+            resolved.add(f);
+        }
+        this.fields = resolved.toArray(new Field[0]);
+    }
+
+    String[] properties() {
+        String[] names = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            names[i] = fields[i].getName();
+        }
+        return names;
+    }
+
+    /**
+     * Values of {@code instance} in {@link #properties()} order, for benchmark setup.
+     */
+    Object[] values(T instance) {
+        try {
+            Object[] values = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                values[i] = fields[i].get(instance);
+            }
+            return values;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    T build(Object[] values) {
+        try {
+            T instance = ctor.newInstance();
+            for (int i = 0; i < fields.length; i++) {
+                fields[i].set(instance, values[i]);
+            }
+            return instance;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
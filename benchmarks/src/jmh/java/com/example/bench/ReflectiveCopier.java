@@ -0,0 +1,54 @@
+package com.example.bench;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typical reflection-based bean copier: same-named fields resolved once, then copied through
+ * {@link Field#get(Object)} / {@link Field#set(Object, Object)} on every call.
+ */
+final class ReflectiveCopier<S, T> {
+
+    private final Constructor<T> targetCtor;
+    private final Field[] sourceFields;
+    private final Field[] targetFields;
+
+    ReflectiveCopier(Class<S> sourceType, Class<T> targetType) {
+        try {
+            this.targetCtor = targetType.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(targetType + " has no no-args constructor", e);
+        }
+        List<Field> from = new ArrayList<>();
+        List<Field> to = new ArrayList<>();
+        for (Field sf : sourceType.getDeclaredFields()) {
+            if (Modifier.isStatic(sf.getModifiers())) continue;
+            try {
+                Field tf = targetType.getDeclaredField(sf.getName());
+                sf.setAccessible(true);
+                tf.setAccessible(true);
+                from.add(sf);
+                to.add(tf);
+            } catch (NoSuchFieldException ignored) {
+                // not mapped
+            }
+        }
+        this.sourceFields = from.toArray(new Field[0]);
+        this.targetFields = to.toArray(new Field[0]);
+    }
+
+    T copy(S source) {
+        try {
+            T target = targetCtor.newInstance();
+            for (int i = 0; i < sourceFields.length; i++) {
+                targetFields[i].set(target, sourceFields[i].get(source));
+            }
+            return target;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
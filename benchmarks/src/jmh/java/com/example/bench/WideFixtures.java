@@ -0,0 +1,133 @@
+package com.example.bench;
+
+import com.example.bench.model.WideUser;
+import com.example.bench.model.WideUserDto;
+
+/**
+ * Populated wide instances shared by the benchmarks.
+ */
+final class WideFixtures {
+
+    private WideFixtures() {
+    }
+
+    static WideUser wideUser() {
+        WideUser user = new WideUser();
+        user.setInt00(0);
+        user.setLong01(1L);
+        user.setString02("value2");
+        user.setDouble03(3.5);
+        user.setBoolean04(true);
+        user.setInt05(5);
+        user.setLong06(6L);
+        user.setString07("value7");
+        user.setDouble08(8.5);
+        user.setBoolean09(true);
+        user.setInt10(10);
+        user.setLong11(11L);
+        user.setString12("value12");
+        user.setDouble13(13.5);
+        user.setBoolean14(true);
+        user.setInt15(15);
+        user.setLong16(16L);
+        user.setString17("value17");
+        user.setDouble18(18.5);
+        user.setBoolean19(true);
+        user.setInt20(20);
+        user.setLong21(21L);
+        user.setString22("value22");
+        user.setDouble23(23.5);
+        user.setBoolean24(true);
+        user.setInt25(25);
+        user.setLong26(26L);
+        user.setString27("value27");
+        user.setDouble28(28.5);
+        user.setBoolean29(true);
+        user.setInt30(30);
+        user.setLong31(31L);
+        user.setString32("value32");
+        user.setDouble33(33.5);
+        user.setBoolean34(true);
+        user.setInt35(35);
+        user.setLong36(36L);
+        user.setString37("value37");
+        user.setDouble38(38.5);
+        user.setBoolean39(true);
+        user.setInt40(40);
+        user.setLong41(41L);
+        user.setString42("value42");
+        user.setDouble43(43.5);
+        user.setBoolean44(true);
+        user.setInt45(45);
+        user.setLong46(46L);
+        user.setString47("value47");
+        user.setDouble48(48.5);
+        user.setBoolean49(true);
+        user.setInt50(50);
+        user.setLong51(51L);
+        user.setString52("value52");
+        user.setDouble53(53.5);
+        user.setBoolean54(true);
+        return user;
+    }
+
+    static WideUserDto wideUserDto() {
+        WideUserDto dto = new WideUserDto();
+        dto.setInt00(0);
+        dto.setLong01(1L);
+        dto.setString02("value2");
+        dto.setDouble03(3.5);
+        dto.setBoolean04(true);
+        dto.setInt05(5);
+        dto.setLong06(6L);
+        dto.setString07("value7");
+        dto.setDouble08(8.5);
+        dto.setBoolean09(true);
+        dto.setInt10(10);
+        dto.setLong11(11L);
+        dto.setString12("value12");
+        dto.setDouble13(13.5);
+        dto.setBoolean14(true);
+        dto.setInt15(15);
+        dto.setLong16(16L);
+        dto.setString17("value17");
+        dto.setDouble18(18.5);
+        dto.setBoolean19(true);
+        dto.setInt20(20);
+        dto.setLong21(21L);
+        dto.setString22("value22");
+        dto.setDouble23(23.5);
+        dto.setBoolean24(true);
+        dto.setInt25(25);
+        dto.setLong26(26L);
+        dto.setString27("value27");
+        dto.setDouble28(28.5);
+        dto.setBoolean29(true);
+        dto.setInt30(30);
+        dto.setLong31(31L);
+        dto.setString32("value32");
+        dto.setDouble33(33.5);
+        dto.setBoolean34(true);
+        dto.setInt35(35);
+        dto.setLong36(36L);
+        dto.setString37("value37");
+        dto.setDouble38(38.5);
+        dto.setBoolean39(true);
+        dto.setInt40(40);
+        dto.setLong41(41L);
+        dto.setString42("value42");
+        dto.setDouble43(43.5);
+        dto.setBoolean44(true);
+        dto.setInt45(45);
+        dto.setLong46(46L);
+        dto.setString47("value47");
+        dto.setDouble48(48.5);
+        dto.setBoolean49(true);
+        dto.setInt50(50);
+        dto.setLong51(51L);
+        dto.setString52("value52");
+        dto.setDouble53(53.5);
+        dto.setBoolean54(true);
+        return dto;
+    }
+}
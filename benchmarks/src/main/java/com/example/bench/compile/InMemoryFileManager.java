@@ -0,0 +1,80 @@
+package com.example.bench.compile;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps every compiler output (generated sources, class files, resources) in memory so the harness
+ * measures the compiler and processors rather than the disk.
+ */
+final class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    private final Map<String, MemoryFile> outputs = new HashMap<>();
+
+    InMemoryFileManager(StandardJavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className,
+                                               JavaFileObject.Kind kind, FileObject sibling) {
+        String path = className.replace('.', '/') + kind.extension;
+        return outputs.computeIfAbsent(location.getName() + "/" + path, p -> new MemoryFile(path, kind));
+    }
+
+    @Override
+    public FileObject getFileForOutput(JavaFileManager.Location location, String packageName,
+                                       String relativeName, FileObject sibling) {
+        String path = (packageName.isEmpty() ? "" : packageName.replace('.', '/') + '/') + relativeName;
+        return outputs.computeIfAbsent(location.getName() + "/" + path, p -> new MemoryFile(path, JavaFileObject.Kind.OTHER));
+    }
+
+    long count(JavaFileObject.Kind kind) {
+        return outputs.values().stream().filter(f -> f.getKind() == kind).count();
+    }
+
+    /**
+     * Loads the compiled classes from memory, delegating everything else to {@code parent}.
+     */
+    ClassLoader classLoader(ClassLoader parent) {
+        return new ClassLoader(parent) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                MemoryFile file = outputs.get(StandardLocation.CLASS_OUTPUT.getName() + "/"
+                        + name.replace('.', '/') + JavaFileObject.Kind.CLASS.extension);
+                if (file == null) throw new ClassNotFoundException(name);
+                byte[] bytes = file.content.toByteArray();
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+    }
+
+    private static final class MemoryFile extends SimpleJavaFileObject {
+        private ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        MemoryFile(String path, Kind kind) {
+            super(URI.create("mem:///" + path), kind);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            content = new ByteArrayOutputStream();
+            return content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content.toString(java.nio.charset.StandardCharsets.UTF_8);
+        }
+    }
+}
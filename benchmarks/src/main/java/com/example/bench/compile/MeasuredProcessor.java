@@ -0,0 +1,229 @@
+package com.example.bench.compile;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wraps a processor to accumulate its wall time and allocated bytes across init and all rounds, and to count the
+ * files it creates through the Filer. Allocation is sampled on the javac thread and on the processors' render threads,
+ * which render large rounds until the pool is shut down in the last round.
+ */
+final class MeasuredProcessor implements Processor {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    /** Name prefix of the render threads (SourceWriter.THREAD_NAME_PREFIX, which is not public). */
+    private static final String RENDER_THREAD = "autogen-render-";
+
+    private final Processor delegate;
+    private long wallNanos;
+    private long allocatedBytes;
+    private int generatedFiles;
+
+    MeasuredProcessor(Processor delegate) {
+        this.delegate = delegate;
+    }
+
+    String name() {
+        return delegate.getClass().getSimpleName();
+    }
+
+    long wallNanos() {
+        return wallNanos;
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    int generatedFiles() {
+        return generatedFiles;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return delegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+        long start = System.nanoTime();
+        Map<Long, Long> allocated = allocatedByThread();
+        delegate.init(new CountingEnvironment(processingEnv));
+        allocatedBytes += allocatedSince(allocated);
+        wallNanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        long start = System.nanoTime();
+        Map<Long, Long> allocated = allocatedByThread();
+        try {
+            return delegate.process(annotations, roundEnv);
+        } finally {
+            allocatedBytes += allocatedSince(allocated);
+            wallNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Bytes allocated so far by the current thread and each live render thread, by thread id.
+     */
+    private static Map<Long, Long> allocatedByThread() {
+        long current = Thread.currentThread().threadId();
+        long[] ids = THREADS.getAllThreadIds();
+        ThreadInfo[] infos = THREADS.getThreadInfo(ids, 0);
+        long[] sampled = new long[ids.length];
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == current || (infos[i] != null && infos[i].getThreadName().startsWith(RENDER_THREAD))) {
+                sampled[n++] = ids[i];
+            }
+        }
+        sampled = Arrays.copyOf(sampled, n);
+        long[] bytes = THREADS.getThreadAllocatedBytes(sampled);
+        Map<Long, Long> byThread = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            if (bytes[i] >= 0) {
+                byThread.put(sampled[i], bytes[i]);
+            }
+        }
+        return byThread;
+    }
+
+    /**
+     * Bytes allocated since the sample; threads started in between count from zero, and threads that have
+     * terminated in between are not counted.
+     */
+    private static long allocatedSince(Map<Long, Long> before) {
+        long total = 0;
+        for (Map.Entry<Long, Long> e : allocatedByThread().entrySet()) {
+            total += Math.max(0, e.getValue() - before.getOrDefault(e.getKey(), 0L));
+        }
+        return total;
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation,
+                                                         ExecutableElement member, String userText) {
+        return delegate.getCompletions(element, annotation, member, userText);
+    }
+
+    private final class CountingEnvironment implements ProcessingEnvironment {
+        private final ProcessingEnvironment env;
+        private final Filer filer;
+
+        CountingEnvironment(ProcessingEnvironment env) {
+            this.env = env;
+            this.filer = new CountingFiler(env.getFiler());
+        }
+
+        @Override
+        public Map<String, String> getOptions() {
+            return env.getOptions();
+        }
+
+        @Override
+        public Messager getMessager() {
+            return env.getMessager();
+        }
+
+        @Override
+        public Filer getFiler() {
+            return filer;
+        }
+
+        @Override
+        public Elements getElementUtils() {
+            return env.getElementUtils();
+        }
+
+        @Override
+        public Types getTypeUtils() {
+            return env.getTypeUtils();
+        }
+
+        @Override
+        public SourceVersion getSourceVersion() {
+            return env.getSourceVersion();
+        }
+
+        @Override
+        public Locale getLocale() {
+            return env.getLocale();
+        }
+
+        @Override
+        public boolean isPreviewEnabled() {
+            return env.isPreviewEnabled();
+        }
+    }
+
+    private final class CountingFiler implements Filer {
+        private final Filer filer;
+
+        CountingFiler(Filer filer) {
+            this.filer = filer;
+        }
+
+        @Override
+        public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+            JavaFileObject file = filer.createSourceFile(name, originatingElements);
+            generatedFiles++;
+            return file;
+        }
+
+        @Override
+        public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+            JavaFileObject file = filer.createClassFile(name, originatingElements);
+            generatedFiles++;
+            return file;
+        }
+
+        @Override
+        public FileObject createResource(JavaFileManager.Location location, CharSequence moduleAndPkg,
+                                         CharSequence relativeName, Element... originatingElements) throws IOException {
+            FileObject file = filer.createResource(location, moduleAndPkg, relativeName, originatingElements);
+            generatedFiles++;
+            return file;
+        }
+
+        @Override
+        public FileObject getResource(JavaFileManager.Location location, CharSequence moduleAndPkg,
+                                      CharSequence relativeName) throws IOException {
+            return filer.getResource(location, moduleAndPkg, relativeName);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.bench.compile;
+
+import com.example.processor.AutoBuilderProcessor;
+import com.example.processor.AutoMapperProcessor;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compile-time scaling harness: synthesizes N @AutoBuilder/@AutoMapper model pairs per size, compiles them
+ * in memory with both processors attached and prints per-processor wall time, allocated bytes and
+ * generated-file counts.
+ * <p>
+ * Each size is also a scale check: the compilation must succeed (e.g. no generated method over the 64 KB limit),
+ * produce a builder and a mapper per pair plus the MapperRegistry, and the loaded registry must resolve both
+ * directions of every pair.
+ * <p>
+ * Arguments (all optional): {@code --sizes 100,1000,10000 --fields 10 --warmup 1}.
+ * Run through {@code ./gradlew :benchmarks:processorHarness --args="..."}.
+ */
+public final class ProcessorScalingHarness {
+
+    private ProcessorScalingHarness() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = {100, 1_000, 10_000};
+        int fields = 10;
+        int warmup = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--fields":
+                    fields = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No system Java compiler; run the harness on a JDK");
+        }
+
+        for (int w = 0; w < warmup; w++) {
+            compile(compiler, sizes[0], fields);
+        }
+
+        System.out.printf(Locale.ROOT, "%-8s %-7s %-22s %12s %14s %10s%n",
+                "models", "fields", "processor", "wall ms", "allocated MB", "generated");
+        for (int size : sizes) {
+            Result result = compile(compiler, size, fields);
+            for (MeasuredProcessor p : result.processors) {
+                System.out.printf(Locale.ROOT, "%-8d %-7d %-22s %12.1f %14.1f %10d%n",
+                        size, fields, p.name(), p.wallNanos() / 1e6, p.allocatedBytes() / (1024.0 * 1024.0),
+                        p.generatedFiles());
+            }
+            System.out.printf(Locale.ROOT, "%-8d %-7d %-22s %12.1f %14s %10d%n",
+                    size, fields, "javac total", result.totalNanos / 1e6, "-", result.generatedSources);
+        }
+    }
+
+    private static Result compile(JavaCompiler compiler, int models, int fields) {
+        List<JavaFileObject> sources = SyntheticSources.generate(models, fields);
+        List<MeasuredProcessor> processors = new ArrayList<>();
+        processors.add(new MeasuredProcessor(new AutoBuilderProcessor()));
+        processors.add(new MeasuredProcessor(new AutoMapperProcessor()));
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (InMemoryFileManager fileManager = new InMemoryFileManager(
+                compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8))) {
+            List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"), "-nowarn");
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+            task.setProcessors(processors);
+
+            long start = System.nanoTime();
+            boolean ok = task.call();
+            long totalNanos = System.nanoTime() - start;
+            if (!ok) {
+                throw new IllegalStateException("Synthetic compilation failed: " + diagnostics.getDiagnostics());
+            }
+            long generatedSources = fileManager.count(JavaFileObject.Kind.SOURCE);
+            if (generatedSources != 2L * models + 1) {
+                throw new IllegalStateException("Expected " + (2L * models + 1) + " generated sources for " + models
+                        + " models, got " + generatedSources);
+            }
+            checkRegistry(fileManager.classLoader(ProcessorScalingHarness.class.getClassLoader()), models);
+            return new Result(processors, totalNanos, generatedSources);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void checkRegistry(ClassLoader loader, int models) {
+        try {
+            Method find = loader.loadClass(SyntheticSources.PACKAGE + ".MapperRegistry")
+                    .getMethod("find", Class.class, Class.class);
+            for (int i = 0; i < models; i++) {
+                Class<?> model = loader.loadClass(SyntheticSources.PACKAGE + ".Model" + i);
+                Class<?> dto = loader.loadClass(SyntheticSources.PACKAGE + ".Model" + i + "Dto");
+                if (find.invoke(null, model, dto) == null || find.invoke(null, dto, model) == null) {
+                    throw new IllegalStateException("MapperRegistry does not resolve Model" + i + " <-> Model" + i + "Dto");
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot check the generated MapperRegistry", e);
+        }
+    }
+
+    private static final class Result {
+        final List<MeasuredProcessor> processors;
+        final long totalNanos;
+        final long generatedSources;
+
+        Result(List<MeasuredProcessor> processors, long totalNanos, long generatedSources) {
+            this.processors = processors;
+            this.totalNanos = totalNanos;
+            this.generatedSources = generatedSources;
+        }
+    }
+}
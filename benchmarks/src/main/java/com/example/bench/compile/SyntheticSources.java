@@ -0,0 +1,68 @@
+package com.example.bench.compile;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthesizes model pairs for the compile-time harness: {@code Model{i}} annotated with @AutoBuilder and
+ * {@code Model{i}Dto} annotated with @AutoMapper(from = Model{i}.class), each with the same fields and
+ * public getters/setters. Field types cycle through int, long, String, double and boolean.
+ */
+final class SyntheticSources {
+
+    static final String PACKAGE = "com.example.synthetic";
+
+    private static final String[] TYPES = {"int", "long", "String", "double", "boolean"};
+
+    private SyntheticSources() {
+    }
+
+    static List<JavaFileObject> generate(int models, int fieldsPerModel) {
+        List<JavaFileObject> sources = new ArrayList<>(models * 2);
+        for (int i = 0; i < models; i++) {
+            String model = "Model" + i;
+            sources.add(source(model, "@com.example.annotations.AutoBuilder", fieldsPerModel));
+            sources.add(source(model + "Dto", "@com.example.annotations.AutoMapper(from = " + model + ".class)", fieldsPerModel));
+        }
+        return sources;
+    }
+
+    private static JavaFileObject source(String className, String annotation, int fields) {
+        StringBuilder sb = new StringBuilder(256 + fields * 160);
+        sb.append("package ").append(PACKAGE).append(";\n\n")
+                .append(annotation).append('\n')
+                .append("public class ").append(className).append(" {\n");
+        for (int f = 0; f < fields; f++) {
+            sb.append("    private ").append(TYPES[f % TYPES.length]).append(" field").append(f).append(";\n");
+        }
+        sb.append("\n    public ").append(className).append("() {\n    }\n");
+        for (int f = 0; f < fields; f++) {
+            String type = TYPES[f % TYPES.length];
+            String name = "field" + f;
+            String cap = "Field" + f;
+            sb.append("\n    public ").append(type).append(type.equals("boolean") ? " is" : " get").append(cap)
+                    .append("() { return ").append(name).append("; }\n")
+                    .append("    public void set").append(cap).append('(').append(type).append(' ').append(name)
+                    .append(") { this.").append(name).append(" = ").append(name).append("; }\n");
+        }
+        sb.append("}\n");
+        return new StringSource(PACKAGE.replace('.', '/') + '/' + className + ".java", sb.toString());
+    }
+
+    private static final class StringSource extends SimpleJavaFileObject {
+        private final String content;
+
+        StringSource(String path, String content) {
+            super(URI.create("string:///" + path), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.bench.model;
+
+import com.example.annotations.AutoMapper;
+
+/**
+ * 55-field model used to measure generated code on wide types.
+ */
+@AutoMapper(from = WideUser.class)
+public class WideUserDto {
+    private int int00;
+    private long long01;
+    private String string02;
+    private double double03;
+    private boolean boolean04;
+    private int int05;
+    private long long06;
+    private String string07;
+    private double double08;
+    private boolean boolean09;
+    private int int10;
+    private long long11;
+    private String string12;
+    private double double13;
+    private boolean boolean14;
+    private int int15;
+    private long long16;
+    private String string17;
+    private double double18;
+    private boolean boolean19;
+    private int int20;
+    private long long21;
+    private String string22;
+    private double double23;
+    private boolean boolean24;
+    private int int25;
+    private long long26;
+    private String string27;
+    private double double28;
+    private boolean boolean29;
+    private int int30;
+    private long long31;
+    private String string32;
+    private double double33;
+    private boolean boolean34;
+    private int int35;
+    private long long36;
+    private String string37;
+    private double double38;
+    private boolean boolean39;
+    private int int40;
+    private long long41;
+    private String string42;
+    private double double43;
+    private boolean boolean44;
+    private int int45;
+    private long long46;
+    private String string47;
+    private double double48;
+    private boolean boolean49;
+    private int int50;
+    private long long51;
+    private String string52;
+    private double double53;
+    private boolean boolean54;
+
+    public WideUserDto() {
+    }
+
+    public int getInt00() { return int00; }
+    public void setInt00(int int00) { this.int00 = int00; }
+
+    public long getLong01() { return long01; }
+    public void setLong01(long long01) { this.long01 = long01; }
+
+    public String getString02() { return string02; }
+    public void setString02(String string02) { this.string02 = string02; }
+
+    public double getDouble03() { return double03; }
+    public void setDouble03(double double03) { this.double03 = double03; }
+
+    public boolean isBoolean04() { return boolean04; }
+    public void setBoolean04(boolean boolean04) { this.boolean04 = boolean04; }
+
+    public int getInt05() { return int05; }
+    public void setInt05(int int05) { this.int05 = int05; }
+
+    public long getLong06() { return long06; }
+    public void setLong06(long long06) { this.long06 = long06; }
+
+    public String getString07() { return string07; }
+    public void setString07(String string07) { this.string07 = string07; }
+
+    public double getDouble08() { return double08; }
+    public void setDouble08(double double08) { this.double08 = double08; }
+
+    public boolean isBoolean09() { return boolean09; }
+    public void setBoolean09(boolean boolean09) { this.boolean09 = boolean09; }
+
+    public int getInt10() { return int10; }
+    public void setInt10(int int10) { this.int10 = int10; }
+
+    public long getLong11() { return long11; }
+    public void setLong11(long long11) { this.long11 = long11; }
+
+    public String getString12() { return string12; }
+    public void setString12(String string12) { this.string12 = string12; }
+
+    public double getDouble13() { return double13; }
+    public void setDouble13(double double13) { this.double13 = double13; }
+
+    public boolean isBoolean14() { return boolean14; }
+    public void setBoolean14(boolean boolean14) { this.boolean14 = boolean14; }
+
+    public int getInt15() { return int15; }
+    public void setInt15(int int15) { this.int15 = int15; }
+
+    public long getLong16() { return long16; }
+    public void setLong16(long long16) { this.long16 = long16; }
+
+    public String getString17() { return string17; }
+    public void setString17(String string17) { this.string17 = string17; }
+
+    public double getDouble18() { return double18; }
+    public void setDouble18(double double18) { this.double18 = double18; }
+
+    public boolean isBoolean19() { return boolean19; }
+    public void setBoolean19(boolean boolean19) { this.boolean19 = boolean19; }
+
+    public int getInt20() { return int20; }
+    public void setInt20(int int20) { this.int20 = int20; }
+
+    public long getLong21() { return long21; }
+    public void setLong21(long long21) { this.long21 = long21; }
+
+    public String getString22() { return string22; }
+    public void setString22(String string22) { this.string22 = string22; }
+
+    public double getDouble23() { return double23; }
+    public void setDouble23(double double23) { this.double23 = double23; }
+
+    public boolean isBoolean24() { return boolean24; }
+    public void setBoolean24(boolean boolean24) { this.boolean24 = boolean24; }
+
+    public int getInt25() { return int25; }
+    public void setInt25(int int25) { this.int25 = int25; }
+
+    public long getLong26() { return long26; }
+    public void setLong26(long long26) { this.long26 = long26; }
+
+    public String getString27() { return string27; }
+    public void setString27(String string27) { this.string27 = string27; }
+
+    public double getDouble28() { return double28; }
+    public void setDouble28(double double28) { this.double28 = double28; }
+
+    public boolean isBoolean29() { return boolean29; }
+    public void setBoolean29(boolean boolean29) { this.boolean29 = boolean29; }
+
+    public int getInt30() { return int30; }
+    public void setInt30(int int30) { this.int30 = int30; }
+
+    public long getLong31() { return long31; }
+    public void setLong31(long long31) { this.long31 = long31; }
+
+    public String getString32() { return string32; }
+    public void setString32(String string32) { this.string32 = string32; }
+
+    public double getDouble33() { return double33; }
+    public void setDouble33(double double33) { this.double33 = double33; }
+
+    public boolean isBoolean34() { return boolean34; }
+    public void setBoolean34(boolean boolean34) { this.boolean34 = boolean34; }
+
+    public int getInt35() { return int35; }
+    public void setInt35(int int35) { this.int35 = int35; }
+
+    public long getLong36() { return long36; }
+    public void setLong36(long long36) { this.long36 = long36; }
+
+    public String getString37() { return string37; }
+    public void setString37(String string37) { this.string37 = string37; }
+
+    public double getDouble38() { return double38; }
+    public void setDouble38(double double38) { this.double38 = double38; }
+
+    public boolean isBoolean39() { return boolean39; }
+    public void setBoolean39(boolean boolean39) { this.boolean39 = boolean39; }
+
+    public int getInt40() { return int40; }
+    public void setInt40(int int40) { this.int40 = int40; }
+
+    public long getLong41() { return long41; }
+    public void setLong41(long long41) { this.long41 = long41; }
+
+    public String getString42() { return string42; }
+    public void setString42(String string42) { this.string42 = string42; }
+
+    public double getDouble43() { return double43; }
+    public void setDouble43(double double43) { this.double43 = double43; }
+
+    public boolean isBoolean44() { return boolean44; }
+    public void setBoolean44(boolean boolean44) { this.boolean44 = boolean44; }
+
+    public int getInt45() { return int45; }
+    public void setInt45(int int45) { this.int45 = int45; }
+
+    public long getLong46() { return long46; }
+    public void setLong46(long long46) { this.long46 = long46; }
+
+    public String getString47() { return string47; }
+    public void setString47(String string47) { this.string47 = string47; }
+
+    public double getDouble48() { return double48; }
+    public void setDouble48(double double48) { this.double48 = double48; }
+
+    public boolean isBoolean49() { return boolean49; }
+    public void setBoolean49(boolean boolean49) { this.boolean49 = boolean49; }
+
+    public int getInt50() { return int50; }
+    public void setInt50(int int50) { this.int50 = int50; }
+
+    public long getLong51() { return long51; }
+    public void setLong51(long long51) { this.long51 = long51; }
+
+    public String getString52() { return string52; }
+    public void setString52(String string52) { this.string52 = string52; }
+
+    public double getDouble53() { return double53; }
+    public void setDouble53(double double53) { this.double53 = double53; }
+
+    public boolean isBoolean54() { return boolean54; }
+    public void setBoolean54(boolean boolean54) { this.boolean54 = boolean54; }
+}
@@ -1,10 +1,20 @@
 package com.example;
 
+import com.example.model.Account;
+import com.example.model.AccountDto;
+import com.example.model.Category;
+import com.example.model.CategoryDto;
 import com.example.model.User;
 import com.example.model.UserDto;
 // Generated classes will be available after compilation:
 // import com.example.model.UserBuilder;                  // Generated
 // import com.example.model.UserToUserDtoMapper;         // Generated
+// import com.example.model.CategoryToCategoryDtoMapper; // Generated
+// import com.example.model.MapperRegistry;              // Generated
+// import com.example.model.UserCodec;                   // Generated
+// import com.example.model.UserColumns;                 // Generated
+// import com.example.model.UserAccessor;                // Generated
+// import com.example.model.AutogenMetrics;              // Generated
 
 public class Main {
     public static void main(String[] args) {
@@ -19,7 +29,55 @@ public class Main {
         com.example.model.UserToUserDtoMapper mapperRef = null; // not needed, static methods
         UserDto dto = com.example.model.UserToUserDtoMapper.map(user);
 
+        // Look up the mapper for a class pair through the generated registry
+        User roundTrip = com.example.model.MapperRegistry.map(dto, User.class);
+
+        // Use generated nested mapping: children are mapped by the same mapper, and the cycle back to the parent
+        // resolves to the already mapped instance
+        Category root = Category.of("Books", null);
+        Category.of("Fiction", root);
+        CategoryDto rootDto = com.example.model.CategoryToCategoryDtoMapper.map(root);
+        CategoryDto childDto = rootDto.getChildren().get(0);
+
+        // Use the instrumented builder and mapper; their calls are counted by the generated metrics
+        Account account = new com.example.model.AccountBuilder().id(2).name("Bob").email("bob@example.com").build();
+        AccountDto accountDto = com.example.model.AccountToAccountDtoMapper.map(account);
+        com.example.model.AccountToAccountDtoMapper.mapBack(accountDto);
+
+        // Use generated codec: encode into a buffer sized by sizeOf and decode it again
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(com.example.model.UserCodec.sizeOf(user));
+        com.example.model.UserCodec.write(user, buffer);
+        buffer.flip();
+        User decoded = com.example.model.UserCodec.read(buffer);
+
+        // Use generated columnar companion: scan a primitive column instead of the row objects
+        com.example.model.UserColumns columns =
+                com.example.model.UserColumns.fromRows(java.util.Arrays.asList(user, decoded));
+        long idSum = 0;
+        for (int id : columns.id) {
+            idSum += id;
+        }
+
+        // Use generated accessor table: walk the fields by index, without reflection
+        com.example.runtime.FieldAccessor<User> accessor = com.example.model.UserAccessor.INSTANCE;
+        StringBuilder fields = new StringBuilder();
+        for (int i = 0; i < accessor.fieldCount(); i++) {
+            fields.append(i == 0 ? "" : ", ").append(accessor.name(i)).append('=').append(accessor.get(user, i));
+        }
+
         System.out.println("User => " + user.getName() + ", " + user.getEmail());
         System.out.println("DTO  => " + dto.getName() + ", " + dto.getEmail());
+        System.out.println("Back => " + roundTrip.getName() + ", " + roundTrip.getEmail());
+        System.out.println("Nest => " + rootDto.getName() + " > " + childDto.getName()
+                + ", parent is mapped root: " + (childDto.getParent() == rootDto));
+        System.out.println("Wire => " + decoded.getName() + ", " + decoded.getEmail());
+        System.out.println("Flds => " + fields);
+        // Generated metrics of the instrumented builder and mapper
+        for (com.example.runtime.MethodMetrics.Snapshot snapshot : com.example.model.AutogenMetrics.snapshot()) {
+            if (snapshot.calls() > 0) {
+                System.out.println("Mtrc => " + snapshot.name() + ": " + snapshot.calls() + " calls");
+            }
+        }
+        System.out.println("Cols => " + columns.size() + " rows, id sum " + idSum + ", first " + columns.row(0).getName());
     }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.model;
+
+import com.example.annotations.AutoBuilder;
+
+// Same shape as User, with instrumented builder methods; User stays uninstrumented for the benchmarks' baselines
+@AutoBuilder(metrics = true)
+public class Account {
+    private int id;
+    private String name;
+    private String email;
+
+    public Account() {
+    }
+
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+}
@@ -0,0 +1,22 @@
+package com.example.model;
+
+import com.example.annotations.AutoMapper;
+
+@AutoMapper(from = Account.class, metrics = true)
+public class AccountDto {
+    private int id;
+    private String name;
+    private String email;
+
+    public AccountDto() {
+    }
+
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+}
@@ -0,0 +1,18 @@
+package com.example.model;
+
+import com.example.annotations.AutoCodec;
+
+@AutoCodec
+public class Address {
+    private String street;
+    private String city;
+
+    public Address() {
+    }
+
+    public String getStreet() { return street; }
+    public void setStreet(String street) { this.street = street; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+}
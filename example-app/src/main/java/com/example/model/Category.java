@@ -0,0 +1,35 @@
+package com.example.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Category {
+    private String name;
+    private Category parent;
+    private List<Category> children = new ArrayList<>();
+
+    public Category() {
+    }
+
+    /**
+     * Creates a category and adds it to its parent's children.
+     */
+    public static Category of(String name, Category parent) {
+        Category category = new Category();
+        category.name = name;
+        category.parent = parent;
+        if (parent != null) {
+            parent.children.add(category);
+        }
+        return category;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Category getParent() { return parent; }
+    public void setParent(Category parent) { this.parent = parent; }
+
+    public List<Category> getChildren() { return children; }
+    public void setChildren(List<Category> children) { this.children = children; }
+}
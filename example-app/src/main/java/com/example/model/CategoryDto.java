@@ -0,0 +1,25 @@
+package com.example.model;
+
+import com.example.annotations.AutoMapper;
+
+import java.util.List;
+
+// Self-referencing graph: parent and children are mapped by the generated mapper itself, tracking visited nodes
+@AutoMapper(from = Category.class)
+public class CategoryDto {
+    private String name;
+    private CategoryDto parent;
+    private List<CategoryDto> children;
+
+    public CategoryDto() {
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public CategoryDto getParent() { return parent; }
+    public void setParent(CategoryDto parent) { this.parent = parent; }
+
+    public List<CategoryDto> getChildren() { return children; }
+    public void setChildren(List<CategoryDto> children) { this.children = children; }
+}
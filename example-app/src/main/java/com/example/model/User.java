@@ -1,8 +1,14 @@
 package com.example.model;
 
+import com.example.annotations.AutoAccessor;
 import com.example.annotations.AutoBuilder;
+import com.example.annotations.AutoCodec;
+import com.example.annotations.AutoColumns;
 
-@AutoBuilder
+@AutoBuilder(reusable = true)
+@AutoCodec
+@AutoColumns
+@AutoAccessor
 public class User {
     private int id;
     private String name;
@@ -4,7 +4,7 @@ import com.example.annotations.AutoBuilder;
 import com.example.annotations.AutoMapper;
 
 @AutoBuilder
-@AutoMapper(from = User.class)
+@AutoMapper(from = User.class, parallel = true, view = true)
 public class UserDto {
     private int id;
     private String name;
@@ -0,0 +1,21 @@
+package com.example.order;
+
+import com.example.annotations.AutoCodec;
+import com.example.model.Address;
+
+// Compiled separately from Address, as when an incremental build recompiles only this file: the nested codec is
+// found through the annotation in Address's class file
+@AutoCodec
+public class Order {
+    private long id;
+    private Address shipTo;
+
+    public Order() {
+    }
+
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public Address getShipTo() { return shipTo; }
+    public void setShipTo(Address shipTo) { this.shipTo = shipTo; }
+}